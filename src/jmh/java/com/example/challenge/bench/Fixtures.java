@@ -0,0 +1,50 @@
+package com.example.challenge.bench;
+
+import com.example.challenge.api.dto.NewOrderRequest;
+import com.example.challenge.api.dto.UpdateOrderRequest;
+import com.example.challenge.domain.Order;
+import com.example.challenge.mapper.OrderMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Pedidos sintéticos com N itens para os benchmarks. */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static NewOrderRequest newOrderRequest(int items) {
+		List<NewOrderRequest.Item> list = new ArrayList<>(items);
+		for (int i = 0; i < items; i++) {
+			NewOrderRequest.Item item = new NewOrderRequest.Item();
+			item.setSku("SKU-" + i);
+			item.setQty(1 + i % 5);
+			item.setUnitPrice(990 + (i % 100) * 100L);
+			list.add(item);
+		}
+		NewOrderRequest request = new NewOrderRequest();
+		request.setCustomerId("customer-42");
+		request.setItems(list);
+		return request;
+	}
+
+	static UpdateOrderRequest updateOrderRequest(int items) {
+		List<UpdateOrderRequest.Item> list = new ArrayList<>(items);
+		for (int i = 0; i < items; i++) {
+			UpdateOrderRequest.Item item = new UpdateOrderRequest.Item();
+			item.setSku("SKU-" + i);
+			item.setQty(2 + i % 3);
+			item.setUnitPrice(1990 + (i % 50) * 100L);
+			list.add(item);
+		}
+		UpdateOrderRequest request = new UpdateOrderRequest();
+		request.setItems(list);
+		return request;
+	}
+
+	static Order order(int items) {
+		return new OrderMapper().toEntity(newOrderRequest(items));
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.example.challenge.bench;
+
+import com.example.challenge.api.dto.NewOrderRequest;
+import com.example.challenge.domain.OrderItem;
+import com.example.challenge.mapper.OrderMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Centavos em {@code long} contra o modelo anterior em {@code double}: soma do total (laço indexado
+ * vs. {@code DoubleStream}) e leitura do JSON do pedido (Money.Deserializer vs. double do Jackson).
+ * Os métodos {@code legacy*} reproduzem o código antigo para servir de base de comparação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class MoneyBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	int items;
+
+	private List<OrderItem> orderItems;
+	private List<LegacyItem> legacyItems;
+	private byte[] json;
+	private ObjectReader reader;
+	private ObjectReader legacyReader;
+
+	/** Item como era antes: preço em double. */
+	public static class LegacyItem {
+		public String sku;
+		public int qty;
+		public double unitPrice;
+	}
+
+	public static class LegacyOrderRequest {
+		public String customerId;
+		public List<LegacyItem> items;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		NewOrderRequest request = Fixtures.newOrderRequest(items);
+		orderItems = Fixtures.order(items).getItems();
+		json = mapper.writeValueAsBytes(request);
+		reader = mapper.readerFor(NewOrderRequest.class);
+		legacyReader = mapper.readerFor(LegacyOrderRequest.class);
+		legacyItems = new ArrayList<>(items);
+		for (LegacyItem item : ((LegacyOrderRequest) legacyReader.readValue(json)).items) {
+			legacyItems.add(item);
+		}
+	}
+
+	@Benchmark
+	public double legacyDoubleTotal() {
+		return legacyItems.stream().mapToDouble(i -> i.qty * i.unitPrice).sum();
+	}
+
+	@Benchmark
+	public long minorUnitTotal() {
+		return OrderMapper.calculateTotal(orderItems);
+	}
+
+	@Benchmark
+	public Object legacyDoubleRead() throws Exception {
+		return legacyReader.readValue(json);
+	}
+
+	@Benchmark
+	public Object minorUnitRead() throws Exception {
+		return reader.readValue(json);
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.example.challenge.bench;
+
+import com.example.challenge.api.dto.OrderResponse;
+import com.example.challenge.domain.Order;
+import com.example.challenge.mapper.OrderMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson do pedido com itens: a entidade {@link Order} e o {@link OrderResponse} que os
+ * endpoints devolvem, incluindo o mapeamento entidade → DTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	int items;
+
+	private ObjectWriter entityWriter;
+	private ObjectWriter responseWriter;
+	private Order order;
+	private OrderResponse response;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		ObjectMapper mapper = new ObjectMapper();
+		entityWriter = mapper.writerFor(Order.class);
+		responseWriter = mapper.writerFor(OrderResponse.class);
+		order = Fixtures.order(items);
+		response = OrderMapper.toResponse(order);
+	}
+
+	@Benchmark
+	public byte[] serializeEntity() throws Exception {
+		return entityWriter.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public byte[] serializeResponse() throws Exception {
+		return responseWriter.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public byte[] mapAndSerializeResponse() throws Exception {
+		return responseWriter.writeValueAsBytes(OrderMapper.toResponse(order));
+	}
+
+}
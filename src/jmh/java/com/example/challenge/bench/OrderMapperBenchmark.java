@@ -0,0 +1,77 @@
+package com.example.challenge.bench;
+
+import com.example.challenge.api.dto.NewOrderRequest;
+import com.example.challenge.api.dto.UpdateOrderRequest;
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderItem;
+import com.example.challenge.mapper.OrderMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Custo de mapear DTO → entidade e de recalcular o total por quantidade de itens. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class OrderMapperBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	int items;
+
+	private final OrderMapper mapper = new OrderMapper();
+	private NewOrderRequest newRequest;
+	private UpdateOrderRequest updateRequest;
+	private List<OrderItem> orderItems;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		newRequest = Fixtures.newOrderRequest(items);
+		updateRequest = Fixtures.updateOrderRequest(items);
+		orderItems = Fixtures.order(items).getItems();
+	}
+
+
+	@Benchmark
+	public Order toEntity() {
+		return mapper.toEntity(newRequest);
+	}
+
+	/**
+	 * updateEntity limpa a lista de itens, então cada chamada parte de um pedido novo e mutável.
+	 * Criado dentro do benchmark (um Setup por invocação custaria mais que a medida);
+	 * {@link #freshTargetBaseline} mede só essa criação, para descontar.
+	 */
+	@Benchmark
+	public Order updateEntity() {
+		return mapper.updateEntity(freshTarget(), updateRequest);
+	}
+
+	@Benchmark
+	public Order freshTargetBaseline() {
+		return freshTarget();
+	}
+
+	@Benchmark
+	public long calculateTotal() {
+		return OrderMapper.calculateTotal(orderItems);
+	}
+
+	private static Order freshTarget() {
+		Order target = new Order();
+		target.setItems(new ArrayList<>());
+		return target;
+	}
+
+}
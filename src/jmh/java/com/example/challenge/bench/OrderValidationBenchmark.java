@@ -0,0 +1,54 @@
+package com.example.challenge.bench;
+
+import com.example.challenge.api.dto.NewOrderRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Bean Validation de {@link NewOrderRequest}, o mesmo trabalho que o {@code @Valid} do controller. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class OrderValidationBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	int items;
+
+	private ValidatorFactory factory;
+	private Validator validator;
+	private NewOrderRequest request;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		factory = Validation.buildDefaultValidatorFactory();
+		validator = factory.getValidator();
+		request = Fixtures.newOrderRequest(items);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		factory.close();
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<NewOrderRequest>> validate() {
+		return validator.validate(request);
+	}
+
+}
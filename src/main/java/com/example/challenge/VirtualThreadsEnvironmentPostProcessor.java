@@ -0,0 +1,43 @@
+package com.example.challenge;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Liga o modo de threads virtuais do Camel junto com o do Spring: com
+ * {@code spring.threads.virtual.enabled=true} o Boot já põe Tomcat, {@code @Scheduled} e os
+ * executores do Spring em threads virtuais; o Camel lê {@code camel.threads.virtual.enabled} uma
+ * vez, ao carregar suas classes de thread, então a propriedade de sistema é copiada aqui, antes de
+ * o CamelContext existir. Em JDK anterior ao 21 as duas chaves são ignoradas e isso é logado.
+ */
+public class VirtualThreadsEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+  static final String SPRING_PROPERTY = "spring.threads.virtual.enabled";
+  static final String CAMEL_PROPERTY = "camel.threads.virtual.enabled";
+
+  private final Log log;
+
+  public VirtualThreadsEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+    this.log = logFactory.getLog(VirtualThreadsEnvironmentPostProcessor.class);
+  }
+
+  @Override
+  public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+    if (!environment.getProperty(SPRING_PROPERTY, Boolean.class, false)) {
+      return;
+    }
+    if (Runtime.version().feature() < 21) {
+      log.warn("🧵 " + SPRING_PROPERTY + "=true ignorado: JDK " + Runtime.version().feature()
+          + " não tem threads virtuais (requer 21+)");
+      return;
+    }
+    if (System.getProperty(CAMEL_PROPERTY) == null) {
+      System.setProperty(CAMEL_PROPERTY, "true");
+    }
+    log.info("🧵 Threads virtuais: Tomcat, agendadores e pools do Camel (" + CAMEL_PROPERTY + "="
+        + System.getProperty(CAMEL_PROPERTY) + ")");
+  }
+}
@@ -0,0 +1,7 @@
+package com.example.challenge.api;
+
+public class EventStreamFullException extends RuntimeException {
+  public EventStreamFullException(String message) {
+    super(message);
+  }
+}
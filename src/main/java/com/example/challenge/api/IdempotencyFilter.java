@@ -0,0 +1,112 @@
+package com.example.challenge.api;
+
+import com.example.challenge.domain.IdempotencyRecord;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Suporte a Idempotency-Key em POST /api/orders e POST /api/orders/{id}/pay. Uma chave repetida
+ * devolve a resposta original sem chegar ao controller (nem ao OrderService ou à rota Camel).
+ * Só respostas finais (2xx e 4xx) são guardadas; recusas transitórias (5xx, 408, 429) não, para
+ * que o cliente possa tentar de novo com a mesma chave depois do Retry-After.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final Pattern IDEMPOTENT_PATHS = Pattern.compile("^/api/orders(/[^/]+/pay)?/?$");
+
+  private final IdempotencyStore store;
+
+  public IdempotencyFilter(IdempotencyStore store) {
+    this.store = store;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null
+        || !IDEMPOTENT_PATHS.matcher(request.getRequestURI()).matches();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String key = request.getHeader(HEADER);
+    String scope = request.getMethod() + " " + request.getRequestURI();
+
+    if (replayed(key, scope, response)) {
+      return;
+    }
+
+    if (!store.begin(key)) {
+      response.setStatus(409);
+      response.setHeader("Error", "A request with this Idempotency-Key is already in progress");
+      return;
+    }
+    try {
+      // Outro request com a mesma chave pode ter terminado e gravado entre o find e o begin.
+      if (replayed(key, scope, response)) {
+        return;
+      }
+      ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+      chain.doFilter(request, wrapper);
+      if (storable(wrapper.getStatus())) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(key);
+        record.setScope(scope);
+        record.setStatus(wrapper.getStatus());
+        record.setContentType(wrapper.getContentType());
+        record.setLocation(wrapper.getHeader(HttpHeaders.LOCATION));
+        record.setBody(wrapper.getContentAsByteArray());
+        store.save(record);
+      }
+      wrapper.copyBodyToResponse();
+    } finally {
+      store.end(key);
+    }
+  }
+
+  private static boolean storable(int status) {
+    return status >= 200 && status < 500 && status != 408 && status != 429;
+  }
+
+  /** Responde com o registro guardado para a chave, se houver; false se o request deve seguir. */
+  private boolean replayed(String key, String scope, HttpServletResponse response) throws IOException {
+    IdempotencyRecord stored = store.find(key).orElse(null);
+    if (stored == null) {
+      return false;
+    }
+    if (!scope.equals(stored.getScope())) {
+      response.setStatus(422);
+      response.setHeader("Error", "Idempotency-Key already used for " + stored.getScope());
+      return true;
+    }
+    replay(stored, response);
+    return true;
+  }
+
+  private void replay(IdempotencyRecord stored, HttpServletResponse response) throws IOException {
+    response.setStatus(stored.getStatus());
+    response.setHeader(REPLAYED_HEADER, "true");
+    if (stored.getLocation() != null) {
+      response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+    }
+    if (stored.getContentType() != null) {
+      response.setContentType(stored.getContentType());
+    }
+    byte[] body = stored.getBody();
+    if (body != null && body.length > 0) {
+      response.setContentLength(body.length);
+      response.getOutputStream().write(body);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.challenge.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+  private boolean enabled = true;
+  private Duration ttl = Duration.ofHours(24);
+  private int maxEntries = 10000;
+
+  public boolean isEnabled() { return enabled; }
+  public void setEnabled(boolean enabled) { this.enabled = enabled; }
+  public Duration getTtl() { return ttl; }
+  public void setTtl(Duration ttl) { this.ttl = ttl; }
+  public int getMaxEntries() { return maxEntries; }
+  public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+}
@@ -0,0 +1,86 @@
+package com.example.challenge.api;
+
+import com.example.challenge.domain.IdempotencyRecord;
+import com.example.challenge.repo.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respostas já entregues por Idempotency-Key: primeiro um LRU em memória limitado a
+ * idempotency.max-entries, depois a tabela idempotency_keys. Entradas mais velhas que
+ * idempotency.ttl são tratadas como inexistentes e removidas periodicamente.
+ */
+@Component
+public class IdempotencyStore {
+
+  private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+  private final IdempotencyRecordRepository repo;
+  private final IdempotencyProperties props;
+  private final Map<String, IdempotencyRecord> cache;
+  private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+  public IdempotencyStore(IdempotencyRecordRepository repo, IdempotencyProperties props) {
+    this.repo = repo;
+    this.props = props;
+    int max = props.getMaxEntries();
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+        return size() > max;
+      }
+    });
+  }
+
+  public Optional<IdempotencyRecord> find(String key) {
+    IdempotencyRecord record = cache.get(key);
+    if (record == null) {
+      record = repo.findById(key).orElse(null);
+      if (record != null) {
+        cache.put(key, record);
+      }
+    }
+    if (record != null && isExpired(record)) {
+      cache.remove(key);
+      return Optional.empty();
+    }
+    return Optional.ofNullable(record);
+  }
+
+  /** Reserva a chave para um request em andamento; false se outro request já a reservou. */
+  public boolean begin(String key) {
+    return inFlight.add(key);
+  }
+
+  public void end(String key) {
+    inFlight.remove(key);
+  }
+
+  public void save(IdempotencyRecord record) {
+    record.setCreatedAt(Instant.now());
+    cache.put(record.getKey(), record);
+    repo.save(record);
+  }
+
+  @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+  public void purgeExpired() {
+    int removed = repo.deleteCreatedBefore(Instant.now().minus(props.getTtl()));
+    if (removed > 0) {
+      log.info("🧹 {} chaves de idempotência expiradas removidas", removed);
+    }
+  }
+
+  private boolean isExpired(IdempotencyRecord record) {
+    return record.getCreatedAt().plus(props.getTtl()).isBefore(Instant.now());
+  }
+}
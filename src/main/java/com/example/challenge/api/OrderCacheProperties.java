@@ -0,0 +1,21 @@
+package com.example.challenge.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "orders.cache")
+public class OrderCacheProperties {
+  private boolean enabled = true;
+  private int maxEntries = 10000;
+  private Duration ttl = Duration.ofSeconds(30);
+
+  public boolean isEnabled() { return enabled; }
+  public void setEnabled(boolean enabled) { this.enabled = enabled; }
+  public int getMaxEntries() { return maxEntries; }
+  public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+  public Duration getTtl() { return ttl; }
+  public void setTtl(Duration ttl) { this.ttl = ttl; }
+}
@@ -1,64 +1,228 @@
 package com.example.challenge.api;
 
 import com.example.challenge.api.dto.NewOrderRequest;
+import com.example.challenge.api.dto.OrderResponse;
+import com.example.challenge.api.dto.OrderSummaryResponse;
+import com.example.challenge.api.dto.PayBatchRequest;
 import com.example.challenge.api.dto.UpdateOrderRequest;
 import com.example.challenge.domain.Order;
 import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.integration.PaymentAlreadyRequestedException;
+import com.example.challenge.integration.PaymentAttempt;
+import com.example.challenge.integration.PaymentAttempts;
+import com.example.challenge.integration.PaymentBatchResult;
+import com.example.challenge.integration.PaymentDispatcher;
+import com.example.challenge.integration.PaymentProperties;
+import com.example.challenge.mapper.OrderMapper;
+import com.example.challenge.repo.OrderVersion;
+import com.example.challenge.integration.PaymentLimitExceededException;
+import com.example.challenge.integration.PaymentQueueFullException;
+import com.example.challenge.service.OrderImportReport;
+import com.example.challenge.service.OrderImporter;
 import com.example.challenge.service.OrderService;
+import com.example.challenge.service.OrderStatusSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.apache.camel.ProducerTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/orders")
 @Tag(name = "Orders", description = "Operações relacionadas com pedidos")
 public class OrderController {
 
+	static final String NDJSON = "application/x-ndjson";
+	static final String CSV = "text/csv";
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	static final int DEFAULT_PAGE_SIZE = 100;
+	static final int MAX_PAGE_SIZE = 1000;
+
 	private final OrderService service;
-	private final ProducerTemplate template;
+	private final PaymentDispatcher dispatcher;
+	private final PaymentAttempts attempts;
+	private final PaymentProperties props;
+	private final ObjectMapper objectMapper;
+	private final OrderStatusSummary summary;
+	private final OrderImporter importer;
+	private final OrderResponseCache responses;
+	private final OrderEventStream events;
 
-	public OrderController(OrderService service, ProducerTemplate template) {
+	public OrderController(OrderService service, PaymentDispatcher dispatcher, PaymentAttempts attempts,
+			PaymentProperties props, ObjectMapper objectMapper, OrderStatusSummary summary, OrderImporter importer,
+			OrderResponseCache responses, OrderEventStream events) {
 		this.service = service;
-		this.template = template;
+		this.dispatcher = dispatcher;
+		this.attempts = attempts;
+		this.props = props;
+		this.objectMapper = objectMapper;
+		this.summary = summary;
+		this.importer = importer;
+		this.responses = responses;
+		this.events = events;
 	}
 
 	@Operation(summary = "Cria um novo pedido")
 	@PostMapping
-	public ResponseEntity<Order> create(@Valid @RequestBody NewOrderRequest req) {
+	public ResponseEntity<OrderResponse> create(@Valid @RequestBody NewOrderRequest req) {
 		Order created = service.create(req);
-		return ResponseEntity.created(URI.create("/api/orders/" + created.getId())).body(created);
+		return ResponseEntity.created(URI.create("/api/orders/" + created.getId()))
+				.body(OrderMapper.toResponse(created));
+
+	}
 
+	@Operation(summary = "Quantidade e soma de total por status (contadores em memória, sem consulta ao banco)")
+	@GetMapping("/summary")
+	public OrderSummaryResponse summary() {
+		OrderSummaryResponse response = new OrderSummaryResponse();
+		EnumMap<OrderStatus, OrderSummaryResponse.StatusTotals> byStatus = new EnumMap<>(OrderStatus.class);
+		summary.snapshot().forEach((status, totals) -> {
+			byStatus.put(status, new OrderSummaryResponse.StatusTotals(totals.count(), totals.amount()));
+			response.setCount(response.getCount() + totals.count());
+			response.setTotal(response.getTotal() + totals.amount());
+		});
+		response.setByStatus(byStatus);
+		return response;
 	}
 
-	@Operation(summary = "Busca um pedido por ID")
+	@Operation(summary = "Importa pedidos em lote: NDJSON (um pedido por linha) ou CSV (ref,customerId,sku,qty,unitPrice)")
+	@PostMapping(path = "/import", consumes = { NDJSON, CSV })
+	public OrderImportReport importOrders(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+			InputStream body) throws IOException {
+		OrderImporter.Format format = MediaType.parseMediaType(CSV).isCompatibleWith(contentType)
+				? OrderImporter.Format.CSV
+				: OrderImporter.Format.NDJSON;
+		return importer.importOrders(body, format);
+	}
+
+	@Operation(summary = "Busca um pedido por ID (ETag forte; If-None-Match responde 304)", responses = {
+			@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = OrderResponse.class))),
+			@ApiResponse(responseCode = "304", description = "Pedido não mudou desde a ETag informada") })
 	@GetMapping("/{id}")
-	public ResponseEntity<Order> get(@PathVariable("id") String id) {
+	public ResponseEntity<byte[]> get(@PathVariable("id") String id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		// 304 com a ETag do cache ou só a versão do banco, sem carregar itens nem serializar.
+		if (ifNoneMatch != null) {
+			Optional<String> etag = responses.etag(id).or(() -> service.version(id).map(OrderETags::of));
+			if (etag.isPresent() && OrderETags.matches(ifNoneMatch, etag.get()))
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+		}
+
+		return responses.get(id, key -> service.get(key).map(order -> new OrderResponseCache.Response(
+				toJson(OrderMapper.toResponse(order)), OrderETags.of(OrderVersion.of(order).version()))))
+				.map(r -> ResponseEntity.ok().eTag(r.etag()).contentType(MediaType.APPLICATION_JSON).body(r.json()))
+				.orElse(ResponseEntity.notFound().build());
+	}
+
+	private byte[] toJson(OrderResponse response) {
+		try {
+			return objectMapper.writeValueAsBytes(response);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Operation(summary = "Stream SSE do pedido: estado atual e mudanças, até um status final")
+	@GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> events(@PathVariable("id") String id) {
+		try {
+			return events.order(id, service::state).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+		} catch (EventStreamFullException e) {
+			return eventStreamFull();
+		}
+	}
 
-		return service.get(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+	@Operation(summary = "Stream SSE das mudanças de todos os pedidos (opcional filtrar pelo novo status)")
+	@GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> events(@RequestParam(name = "status", required = false) Set<OrderStatus> status) {
+		try {
+			return ResponseEntity.ok(events.all(status == null ? Set.of() : EnumSet.copyOf(status)));
+		} catch (EventStreamFullException e) {
+			return eventStreamFull();
+		}
 	}
 
-	@Operation(summary = "Lista pedidos (opcional filtrar por status)")
+	private static ResponseEntity<SseEmitter> eventStreamFull() {
+		return ResponseEntity.status(503).header("Retry-After", "5").header("Error", "Too many event streams").build();
+	}
+
+	@Operation(summary = "Lista pedidos paginados por cursor (opcional filtrar por status; ETag fraca da página)")
 	@GetMapping
-	public ResponseEntity<List<Order>> list(@RequestParam("status") Optional<OrderStatus> status) {
-		return service.list(status).stream().findAny().map(l -> ResponseEntity.ok(service.list(status)))
-				.orElse(ResponseEntity.noContent().build());
+	public ResponseEntity<List<OrderResponse>> list(@RequestParam("status") Optional<OrderStatus> status,
+			@RequestParam(name = "after", required = false) String after,
+			@RequestParam(name = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+		// ETag da página a partir de (id, versão); 304 sem buscar itens.
+		List<OrderVersion> versions = service.pageVersions(status, after, pageSize);
+		if (versions.isEmpty())
+			return ResponseEntity.noContent().build();
+		String current = OrderETags.page(versions);
+		if (OrderETags.matches(ifNoneMatch, current))
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+
+		List<Order> page = service.load(versions.stream().map(OrderVersion::id).toList());
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.eTag(OrderETags.page(page.stream().map(OrderVersion::of).toList()));
+		if (versions.size() == pageSize) {
+			String next = versions.get(versions.size() - 1).id();
+			UriComponentsBuilder link = UriComponentsBuilder.fromPath("/api/orders").queryParam("after", next)
+					.queryParam("limit", pageSize);
+			status.ifPresent(s -> link.queryParam("status", s));
+			response.header(NEXT_CURSOR_HEADER, next).header(HttpHeaders.LINK,
+					"<" + link.toUriString() + ">; rel=\"next\"");
+		}
+		return response.body(page.stream().map(OrderMapper::toResponse).toList());
+	}
+
+	@Operation(summary = "Exporta pedidos como NDJSON (uma linha por pedido, memória constante)")
+	@GetMapping(produces = NDJSON)
+	public ResponseEntity<StreamingResponseBody> stream(@RequestParam("status") Optional<OrderStatus> status) {
+		StreamingResponseBody body = out -> {
+			try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+				service.forEach(status, order -> {
+					try {
+						writer.write(OrderMapper.toResponse(order));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
 	}
 
 	@Operation(summary = "Atualiza itens de um pedido (apenas se NEW)")
 	@PutMapping("/{id}")
-	public ResponseEntity<Order> update(@PathVariable("id") String id, @Valid @RequestBody UpdateOrderRequest req) {
+	public ResponseEntity<OrderResponse> update(@PathVariable("id") String id,
+			@Valid @RequestBody UpdateOrderRequest req) {
 
 		Order updated = service.updateItems(id, req);
 
-		return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+		return updated != null ? ResponseEntity.ok(OrderMapper.toResponse(updated)) : ResponseEntity.notFound().build();
 	}
 
 	@Operation(summary = "Exclui um pedido (apenas se NEW)")
@@ -76,10 +240,47 @@ public class OrderController {
 			if (order.getStatus() != OrderStatus.NEW)
 				return ResponseEntity.status(409).header("Error", "Order must be NEW to process payment").build();
 
-			template.sendBodyAndHeaders("direct:payOrder", null,
-					Map.of("orderId", order.getId(), "amount", order.getTotal()));
-			return ResponseEntity.accepted().build();
+			try {
+				PaymentAttempt attempt = dispatcher.dispatch(order);
+				return ResponseEntity.accepted().location(URI.create("/api/orders/" + order.getId() + "/payment"))
+						.body((Object) attempt);
+			} catch (PaymentLimitExceededException e) {
+				return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1")
+						.header("Error", "Payment provider is at its concurrency limit").build();
+			} catch (PaymentQueueFullException e) {
+				return ResponseEntity.status(503).header("Retry-After", "1")
+						.header("Error", "Payment queue is full").build();
+			} catch (PaymentAlreadyRequestedException e) {
+				return ResponseEntity.status(409).header("Error", "Payment already requested for this order").build();
+			}
 		}).orElseGet(() -> ResponseEntity.notFound().build());
 
 	}
+
+	@Operation(summary = "Paga um lote de pedidos (por IDs ou por status) em paralelo via Camel")
+	@PostMapping("/pay-batch")
+	public ResponseEntity<PaymentBatchResult> payBatch(@Valid @RequestBody PayBatchRequest req) {
+		int maxSize = props.getBatch().getMaxSize();
+		if (req.getOrderIds() != null) {
+			if (req.getOrderIds().size() > maxSize)
+				return ResponseEntity.badRequest().header("Error", "Batch larger than " + maxSize + " orders").build();
+			List<Order> orders = service.findAllById(req.getOrderIds());
+			Set<String> found = orders.stream().map(Order::getId).collect(Collectors.toSet());
+			PaymentBatchResult result = dispatcher.dispatchBatch(orders);
+			// Ids desconhecidos aparecem no resultado em vez de sumirem do lote.
+			req.getOrderIds().stream().distinct().filter(id -> !found.contains(id))
+					.forEach(id -> result.add(id, PaymentBatchResult.Outcome.NOT_FOUND));
+			return ResponseEntity.ok(result);
+		}
+		if (req.getStatus() == null)
+			return ResponseEntity.badRequest().header("Error", "orderIds or status is required").build();
+
+		return ResponseEntity.ok(dispatcher.dispatchBatch(service.list(req.getStatus(), maxSize)));
+	}
+
+	@Operation(summary = "Consulta a última tentativa de pagamento do pedido")
+	@GetMapping("/{id}/payment")
+	public ResponseEntity<PaymentAttempt> payment(@PathVariable("id") String id) {
+		return attempts.find(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+	}
 }
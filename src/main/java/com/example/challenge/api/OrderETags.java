@@ -0,0 +1,66 @@
+package com.example.challenge.api;
+
+import com.example.challenge.repo.OrderVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * ETags das leituras de pedidos, derivadas só de id e versão (@Version), para responder 304 sem
+ * carregar itens nem serializar:
+ * <ul>
+ * <li>pedido: forte, {@code "v<versão>"}. Corpos pequenos, abaixo de server.compression.min-response-size;</li>
+ * <li>página: fraca, hash dos pares id:versão. Fraca porque o Tomcat não comprime respostas com
+ * ETag forte, e a lista é justamente o que vale comprimir.</li>
+ * </ul>
+ */
+final class OrderETags {
+
+  private OrderETags() {
+  }
+
+  static String of(long version) {
+    return "\"v" + version + "\"";
+  }
+
+  static String page(List<OrderVersion> versions) {
+    MessageDigest digest = sha256();
+    for (OrderVersion v : versions) {
+      digest.update((v.id() + ':' + v.version() + '\n').getBytes(StandardCharsets.US_ASCII));
+    }
+    return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 12) + "\"";
+  }
+
+  /**
+   * If-None-Match bate com {@code etag}? Comparação fraca (RFC 9110 §13.1.2): ignora o prefixo W/,
+   * aceita lista separada por vírgula e {@code *}.
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    String opaque = opaque(etag);
+    for (String candidate : ifNoneMatch.split(",")) {
+      String c = candidate.trim();
+      if (c.equals("*") || opaque(c).equals(opaque)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String opaque(String etag) {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
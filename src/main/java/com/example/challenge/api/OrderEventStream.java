@@ -0,0 +1,479 @@
+package com.example.challenge.api;
+
+import com.example.challenge.api.dto.OrderEventResponse;
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.repo.OrderState;
+import com.example.challenge.service.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Eventos SSE de pedidos, para o cliente não precisar fazer polling de GET /api/orders/{id} depois
+ * do /pay:
+ * <ul>
+ * <li>cada {@link OrderStatusChangedEvent} é entregue depois do commit aos assinantes do pedido e
+ * aos do fluxo geral cujo filtro de status aceita o novo status;</li>
+ * <li>o stream de um pedido começa com o estado atual ({@code snapshot}) e termina no primeiro
+ * status final (PAID, FAILED_PAYMENT, CANCELLED ou exclusão);</li>
+ * <li>conexão ociosa não segura thread: o request fica assíncrono no Tomcat e só as
+ * orders.events.send-threads threads escrevem, drenando um buffer de orders.events.buffer-size
+ * mensagens por assinante. Buffer cheio descarta a mais antiga ou fecha o stream
+ * (orders.events.overflow);</li>
+ * <li>uma escrita bloqueada por mais de orders.events.send-timeout (cliente que parou de ler, com
+ * a janela TCP cheia) fecha o assinante, interrompe a thread e põe outra no lugar dela no pool,
+ * para um cliente travado não segurar a entrega dos demais;</li>
+ * <li>um comentário a cada orders.events.heartbeat-interval-ms mantém proxies abertos e revela
+ * conexões mortas.</li>
+ * </ul>
+ */
+@Component
+public class OrderEventStream {
+
+  /** {@code name} null = comentário (heartbeat). O SseEventBuilder é montado por envio: não é reutilizável. */
+  private record Message(String name, OrderEventResponse data, boolean last) {
+
+    SseEmitter.SseEventBuilder event() {
+      return name == null ? SseEmitter.event().comment("ping")
+          : SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+  }
+
+  private static final Message PING = new Message(null, null, false);
+
+  private final OrderEventsProperties props;
+  private final Map<String, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+  private final Set<Subscriber> firehose = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger subscribers = new AtomicInteger();
+  private final ThreadPoolExecutor senders;
+  private final LongFunction<SseEmitter> emitters;
+  private final long sendTimeoutNanos;
+
+  private final Counter sent;
+  private final Counter droppedOldest;
+  private final Counter closedSlow;
+  private final Counter closedStuck;
+
+  @Autowired
+  public OrderEventStream(OrderEventsProperties props, MeterRegistry registry) {
+    this(props, registry, newSenders(props.getSendThreads()), SseEmitter::new);
+  }
+
+  OrderEventStream(OrderEventsProperties props, MeterRegistry registry, ThreadPoolExecutor senders,
+      LongFunction<SseEmitter> emitters) {
+    this.props = props;
+    this.senders = senders;
+    this.emitters = emitters;
+    this.sendTimeoutNanos = props.getSendTimeout().toNanos();
+    this.sent = Counter.builder("orders.events.sent").register(registry);
+    this.droppedOldest = Counter.builder("orders.events.dropped").tag("policy", "drop_oldest").register(registry);
+    this.closedSlow = Counter.builder("orders.events.dropped").tag("policy", "close").register(registry);
+    this.closedStuck = Counter.builder("orders.events.dropped").tag("policy", "send_timeout").register(registry);
+    Gauge.builder("orders.events.subscribers", subscribers, AtomicInteger::get).register(registry);
+  }
+
+  /**
+   * Stream de um pedido; vazio se o pedido não existe. A assinatura é registrada antes de ler o
+   * estado atual, então nenhuma transição entre a leitura e o registro se perde.
+   */
+  public Optional<SseEmitter> order(String id, Function<String, Optional<OrderState>> loader) {
+    Subscriber subscriber = register(id, Set.of());
+    Optional<OrderState> current;
+    try {
+      current = loader.apply(id);
+    } catch (RuntimeException e) {
+      subscriber.close(false);
+      throw e;
+    }
+    if (current.isEmpty()) {
+      subscriber.close(false);
+      return Optional.empty();
+    }
+    OrderState order = current.get();
+    subscriber.offerFirst(new Message("snapshot",
+        new OrderEventResponse(order.id(), null, order.status(), order.total()), isFinal(order.status())));
+    return Optional.of(subscriber.emitter);
+  }
+
+  /** Fluxo de todas as mudanças; {@code statuses} vazio = sem filtro. */
+  public SseEmitter all(Set<OrderStatus> statuses) {
+    return register(null, statuses).emitter;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(OrderStatusChangedEvent event) {
+    Set<Subscriber> forOrder = byOrder.get(event.orderId());
+    if (forOrder == null && firehose.isEmpty()) {
+      return;
+    }
+    OrderEventResponse change = new OrderEventResponse(event.orderId(), event.from(), event.to(), event.toTotal());
+    if (forOrder != null) {
+      Message message = new Message("change", change, isFinal(event.to()));
+      forOrder.forEach(s -> s.offer(message));
+    }
+    Message message = new Message("change", change, false);
+    for (Subscriber s : firehose) {
+      if (s.statuses.isEmpty() || s.statuses.contains(event.to())) {
+        s.offer(message);
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${orders.events.heartbeat-interval-ms:15000}",
+      initialDelayString = "${orders.events.heartbeat-interval-ms:15000}")
+  public void heartbeat() {
+    firehose.forEach(s -> s.offerIfIdle(PING));
+    byOrder.values().forEach(set -> set.forEach(s -> s.offerIfIdle(PING)));
+  }
+
+  /** Fecha os assinantes com uma escrita parada há mais de send-timeout. */
+  @Scheduled(fixedDelay = 1000, initialDelay = 1000)
+  public void checkSends() {
+    long now = System.nanoTime();
+    firehose.forEach(s -> s.expireSend(now));
+    byOrder.values().forEach(set -> set.forEach(s -> s.expireSend(now)));
+  }
+
+  int subscribers() {
+    return subscribers.get();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    firehose.forEach(s -> s.close(true));
+    byOrder.values().forEach(set -> set.forEach(s -> s.close(true)));
+    senders.shutdownNow();
+  }
+
+  private Subscriber register(String orderId, Set<OrderStatus> statuses) {
+    if (subscribers.incrementAndGet() > props.getMaxSubscribers()) {
+      subscribers.decrementAndGet();
+      throw new EventStreamFullException("Limite de " + props.getMaxSubscribers() + " streams de eventos atingido");
+    }
+    Subscriber subscriber = new Subscriber(emitters.apply(props.getTimeout().toMillis()), orderId, statuses);
+    if (orderId == null) {
+      firehose.add(subscriber);
+    } else {
+      byOrder.computeIfAbsent(orderId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+    }
+    SseEmitter emitter = subscriber.emitter;
+    emitter.onCompletion(() -> subscriber.close(false));
+    emitter.onError(e -> subscriber.close(false));
+    emitter.onTimeout(() -> {
+      subscriber.close(false);
+      emitter.complete();
+    });
+    return subscriber;
+  }
+
+  private static boolean isFinal(OrderStatus status) {
+    return status != OrderStatus.NEW;
+  }
+
+  private static ThreadPoolExecutor newSenders(int threads) {
+    AtomicInteger n = new AtomicInteger();
+    return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+      Thread t = new Thread(r, "order-events-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /** +1 thread no lugar de uma presa numa escrita, -1 quando ela volta. Sob o lock do assinante. */
+  private void resizeSenders(int delta) {
+    synchronized (senders) {
+      if (delta > 0) {
+        senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+        senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+      } else {
+        senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+        senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+      }
+    }
+  }
+
+  /**
+   * Um stream aberto. {@code offer} só mexe no buffer (sob lock, sem I/O) e agenda a drenagem; a
+   * escrita no socket acontece numa thread de envio, uma drenagem por assinante por vez.
+   */
+  private final class Subscriber {
+
+    final SseEmitter emitter;
+    final String orderId;
+    final Set<OrderStatus> statuses;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Message> buffer = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean registered = new AtomicBoolean(true);
+    // Stream de pedido só começa a drenar depois do snapshot entrar na frente do buffer.
+    private volatile boolean ready;
+    // closing: não aceita mais mensagens. complete: a drenagem termina o emitter ao esvaziar o buffer.
+    private boolean closing;
+    private boolean complete;
+    // Escrita em andamento (0 = nenhuma) e a thread dela; stuck: o watchdog já desistiu dela.
+    private long sendingSince;
+    private Thread sender;
+    private boolean stuck;
+
+    Subscriber(SseEmitter emitter, String orderId, Set<OrderStatus> statuses) {
+      this.emitter = emitter;
+      this.orderId = orderId;
+      this.statuses = statuses;
+      this.ready = orderId == null;
+    }
+
+    void offer(Message message) {
+      boolean overflowed = false;
+      lock.lock();
+      try {
+        if (closing) {
+          return;
+        }
+        if (buffer.size() >= props.getBufferSize()) {
+          if (props.getOverflow() == OrderEventsProperties.Overflow.CLOSE) {
+            buffer.clear();
+            closing = true;
+            complete = true;
+            overflowed = true;
+          } else {
+            buffer.pollFirst();
+            droppedOldest.increment();
+          }
+        }
+        if (!overflowed) {
+          buffer.addLast(message);
+        }
+      } finally {
+        lock.unlock();
+      }
+      if (overflowed) {
+        closedSlow.increment();
+        unregister();
+      }
+      schedule();
+    }
+
+    void offerFirst(Message message) {
+      lock.lock();
+      try {
+        if (!closing) {
+          buffer.addFirst(message);
+        }
+      } finally {
+        lock.unlock();
+      }
+      ready = true;
+      schedule();
+    }
+
+    void offerIfIdle(Message message) {
+      lock.lock();
+      try {
+        if (!buffer.isEmpty()) {
+          return;
+        }
+      } finally {
+        lock.unlock();
+      }
+      offer(message);
+    }
+
+    /**
+     * Tira o assinante dos índices. {@code flush}: envia o que já está no buffer e termina o
+     * stream; sem flush o buffer é descartado e o emitter fica como está (já terminado pelo
+     * container ou nunca devolvido ao cliente).
+     */
+    void close(boolean flush) {
+      unregister();
+      lock.lock();
+      try {
+        closing = true;
+        if (flush) {
+          complete = true;
+        } else {
+          buffer.clear();
+        }
+      } finally {
+        lock.unlock();
+      }
+      if (flush) {
+        ready = true;
+        schedule();
+      }
+    }
+
+    private void unregister() {
+      if (!registered.compareAndSet(true, false)) {
+        return;
+      }
+      subscribers.decrementAndGet();
+      if (orderId == null) {
+        firehose.remove(this);
+      } else {
+        byOrder.computeIfPresent(orderId, (k, set) -> {
+          set.remove(this);
+          return set.isEmpty() ? null : set;
+        });
+      }
+    }
+
+    private void schedule() {
+      if (ready && draining.compareAndSet(false, true)) {
+        try {
+          senders.execute(this::drain);
+        } catch (RuntimeException e) {
+          draining.set(false);
+        }
+      }
+    }
+
+    /** Chamado pelo watchdog: desiste de uma escrita parada além de send-timeout. */
+    void expireSend(long now) {
+      Thread blocked;
+      lock.lock();
+      try {
+        if (sendingSince == 0 || stuck || now - sendingSince < sendTimeoutNanos) {
+          return;
+        }
+        stuck = true;
+        blocked = sender;
+        resizeSenders(1);
+      } finally {
+        lock.unlock();
+      }
+      closedStuck.increment();
+      close(false);
+      blocked.interrupt();
+      // Encerra a requisição assíncrona agora, em vez de esperar o timeout do SSE.
+      emitter.completeWithError(
+          new TimeoutException("Escrita SSE parada além de orders.events.send-timeout"));
+    }
+
+    /** Marca o início da escrita; false se o assinante já foi fechado. */
+    private boolean startSend() {
+      lock.lock();
+      try {
+        if (closing && !complete) {
+          return false;
+        }
+        sendingSince = System.nanoTime();
+        sender = Thread.currentThread();
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Fim da escrita; true se o watchdog desistiu dela no meio (a thread extra sai do pool). */
+    private boolean endSend() {
+      lock.lock();
+      try {
+        sendingSince = 0;
+        sender = null;
+        if (stuck) {
+          resizeSenders(-1);
+        }
+        return stuck;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void drain() {
+      do {
+        Message message;
+        while ((message = poll()) != null) {
+          if (!startSend()) {
+            return;
+          }
+          try {
+            emitter.send(message.event());
+            sent.increment();
+          } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou ou o emitter já terminou; o container avisa via onError/onCompletion.
+            endSend();
+            close(false);
+            return;
+          }
+          if (endSend()) {
+            return;
+          }
+          if (message.last()) {
+            // Status final: o que veio depois no buffer é redundante.
+            unregister();
+            lock.lock();
+            try {
+              buffer.clear();
+              closing = true;
+              complete = true;
+            } finally {
+              lock.unlock();
+            }
+          }
+        }
+        if (takeComplete()) {
+          emitter.complete();
+          return;
+        }
+        draining.set(false);
+      } while (hasPending() && draining.compareAndSet(false, true));
+    }
+
+    private Message poll() {
+      lock.lock();
+      try {
+        return buffer.pollFirst();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Algo a enviar ou um término pedido depois da última checagem. */
+    private boolean hasPending() {
+      lock.lock();
+      try {
+        return !buffer.isEmpty() || complete;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** true uma única vez, quando o stream deve ser terminado; a drenagem fica travada depois. */
+    private boolean takeComplete() {
+      lock.lock();
+      try {
+        boolean result = complete && buffer.isEmpty();
+        if (result) {
+          complete = false;
+        }
+        return result;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.challenge.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "orders.events")
+public class OrderEventsProperties {
+
+  /** O que fazer quando o buffer de um assinante lento enche. */
+  public enum Overflow { DROP_OLDEST, CLOSE }
+
+  private int bufferSize = 256;
+  private Overflow overflow = Overflow.DROP_OLDEST;
+  private int maxSubscribers = 10000;
+  private Duration timeout = Duration.ofMinutes(30);
+  private long heartbeatIntervalMs = 15000;
+  private int sendThreads = 2;
+  private Duration sendTimeout = Duration.ofSeconds(10);
+
+  public int getBufferSize() { return bufferSize; }
+  public void setBufferSize(int bufferSize) { this.bufferSize = bufferSize; }
+  public Overflow getOverflow() { return overflow; }
+  public void setOverflow(Overflow overflow) { this.overflow = overflow; }
+  public int getMaxSubscribers() { return maxSubscribers; }
+  public void setMaxSubscribers(int maxSubscribers) { this.maxSubscribers = maxSubscribers; }
+  public Duration getTimeout() { return timeout; }
+  public void setTimeout(Duration timeout) { this.timeout = timeout; }
+  public long getHeartbeatIntervalMs() { return heartbeatIntervalMs; }
+  public void setHeartbeatIntervalMs(long heartbeatIntervalMs) { this.heartbeatIntervalMs = heartbeatIntervalMs; }
+  public int getSendThreads() { return sendThreads; }
+  public void setSendThreads(int sendThreads) { this.sendThreads = sendThreads; }
+  public Duration getSendTimeout() { return sendTimeout; }
+  public void setSendTimeout(Duration sendTimeout) { this.sendTimeout = sendTimeout; }
+}
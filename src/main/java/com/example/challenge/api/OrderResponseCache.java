@@ -0,0 +1,147 @@
+package com.example.challenge.api;
+
+import com.example.challenge.cache.SegmentedLru;
+import com.example.challenge.service.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache do JSON de {@code GET /api/orders/{id}}, para o polling depois do /pay não ir ao banco:
+ * <ul>
+ * <li>limitado a orders.cache.max-entries num {@link SegmentedLru}; TTL orders.cache.ttl;</li>
+ * <li>toda escrita do {@code OrderService} publica um {@link OrderStatusChangedEvent}, que remove o
+ * pedido depois do commit;</li>
+ * <li>uma leitura que começou antes da invalidação não grava o resultado (geração por segmento),
+ * então um valor antigo não volta para o cache;</li>
+ * <li>404 não fica em cache;</li>
+ * <li>a ETag fica junto do JSON, então um If-None-Match que bate com uma entrada viva é
+ * respondido sem ir ao banco.</li>
+ * </ul>
+ */
+@Component
+public class OrderResponseCache {
+
+  /** JSON serializado do pedido e a ETag correspondente. */
+  public record Response(byte[] json, String etag) {
+  }
+
+  private record Entry(Response response, long loadedAt) {
+  }
+
+  private final OrderCacheProperties props;
+  private final SegmentedLru<String, Entry> entries;
+  private final long ttlNanos;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter expired;
+  private final Counter evicted;
+  private final Counter invalidated;
+
+  public OrderResponseCache(OrderCacheProperties props, MeterRegistry registry) {
+    this.props = props;
+    this.ttlNanos = props.getTtl().toNanos();
+    this.hits = Counter.builder("orders.cache.requests").tag("result", "hit").register(registry);
+    this.misses = Counter.builder("orders.cache.requests").tag("result", "miss").register(registry);
+    this.expired = evictions(registry, "expired");
+    this.evicted = evictions(registry, "size");
+    this.invalidated = evictions(registry, "invalidated");
+    this.entries = new SegmentedLru<>(props.getMaxEntries(), entry -> false,
+        entry -> (isStale(entry, System.nanoTime()) ? expired : evicted).increment());
+    Gauge.builder("orders.cache.size", this, OrderResponseCache::size).register(registry);
+    Gauge.builder("orders.cache.hit.ratio", this, OrderResponseCache::hitRatio).register(registry);
+  }
+
+  /** Resposta do pedido, do cache ou de {@code loader} (vazio = não existe). */
+  public Optional<Response> get(String id, Function<String, Optional<Response>> loader) {
+    if (!props.isEnabled()) {
+      return loader.apply(id);
+    }
+    long now = System.nanoTime();
+    SegmentedLru.Segment<String, Entry> segment = entries.segment(id);
+    long generation;
+    synchronized (segment) {
+      Optional<Response> cached = fresh(segment, id, now);
+      if (cached.isPresent()) {
+        return cached;
+      }
+      generation = segment.generation();
+    }
+
+    misses.increment();
+    Optional<Response> loaded = loader.apply(id);
+    if (loaded.isPresent()) {
+      synchronized (segment) {
+        // Invalidado durante a leitura: o valor pode ser anterior à escrita, não grava.
+        if (segment.generation() == generation) {
+          segment.put(id, new Entry(loaded.get(), now));
+        }
+      }
+    }
+    return loaded;
+  }
+
+  /** ETag da entrada em cache, se houver uma válida; vazio não diz nada sobre o pedido existir. */
+  public Optional<String> etag(String id) {
+    if (!props.isEnabled()) {
+      return Optional.empty();
+    }
+    SegmentedLru.Segment<String, Entry> segment = entries.segment(id);
+    synchronized (segment) {
+      return fresh(segment, id, System.nanoTime()).map(Response::etag);
+    }
+  }
+
+  /** Chamado com o monitor do segmento. */
+  private Optional<Response> fresh(SegmentedLru.Segment<String, Entry> segment, String id, long now) {
+    Entry entry = segment.get(id);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    if (!isStale(entry, now)) {
+      hits.increment();
+      return Optional.of(entry.response());
+    }
+    segment.remove(id);
+    expired.increment();
+    return Optional.empty();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(OrderStatusChangedEvent event) {
+    invalidate(event.orderId());
+  }
+
+  public void invalidate(String id) {
+    SegmentedLru.Segment<String, Entry> segment = entries.segment(id);
+    synchronized (segment) {
+      segment.advanceGeneration();
+      if (segment.remove(id) != null) {
+        invalidated.increment();
+      }
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private double hitRatio() {
+    double total = hits.count() + misses.count();
+    return total == 0 ? 0 : hits.count() / total;
+  }
+
+  private boolean isStale(Entry entry, long now) {
+    return now - entry.loadedAt() > ttlNanos;
+  }
+
+  private static Counter evictions(MeterRegistry registry, String cause) {
+    return Counter.builder("orders.cache.evictions").tag("cause", cause).register(registry);
+  }
+}
@@ -1,7 +1,10 @@
 package com.example.challenge.api.dto;
 
+import com.example.challenge.domain.MoneyAmount;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Min;
 
 import java.util.List;
@@ -11,7 +14,7 @@ public class NewOrderRequest {
   private String customerId;
 
   @NotEmpty
-  private List<Item> items;
+  private List<@NotNull @Valid Item> items;
 
   public String getCustomerId() { return customerId; }
   public void setCustomerId(String customerId) { this.customerId = customerId; }
@@ -23,14 +26,16 @@ public class NewOrderRequest {
     private String sku;
     @Min(1)
     private int qty;
+    /** Em centavos; no JSON, decimal (49.90). */
     @Min(0)
-    private double unitPrice;
+    @MoneyAmount
+    private long unitPrice;
 
     public String getSku() { return sku; }
     public void setSku(String sku) { this.sku = sku; }
     public int getQty() { return qty; }
     public void setQty(int qty) { this.qty = qty; }
-    public double getUnitPrice() { return unitPrice; }
-    public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
+    public long getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(long unitPrice) { this.unitPrice = unitPrice; }
   }
 }
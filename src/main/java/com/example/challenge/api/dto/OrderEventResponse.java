@@ -0,0 +1,32 @@
+package com.example.challenge.api.dto;
+
+import com.example.challenge.domain.MoneyAmount;
+import com.example.challenge.domain.OrderStatus;
+
+/** Dado de um evento SSE de pedido; {@code status} null = pedido excluído. */
+public class OrderEventResponse {
+  private String id;
+  private OrderStatus previousStatus;
+  private OrderStatus status;
+  @MoneyAmount
+  private long total;
+
+  public OrderEventResponse() {
+  }
+
+  public OrderEventResponse(String id, OrderStatus previousStatus, OrderStatus status, long total) {
+    this.id = id;
+    this.previousStatus = previousStatus;
+    this.status = status;
+    this.total = total;
+  }
+
+  public String getId() { return id; }
+  public void setId(String id) { this.id = id; }
+  public OrderStatus getPreviousStatus() { return previousStatus; }
+  public void setPreviousStatus(OrderStatus previousStatus) { this.previousStatus = previousStatus; }
+  public OrderStatus getStatus() { return status; }
+  public void setStatus(OrderStatus status) { this.status = status; }
+  public long getTotal() { return total; }
+  public void setTotal(long total) { this.total = total; }
+}
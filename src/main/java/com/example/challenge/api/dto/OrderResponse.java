@@ -0,0 +1,43 @@
+package com.example.challenge.api.dto;
+
+import com.example.challenge.domain.MoneyAmount;
+import com.example.challenge.domain.OrderStatus;
+
+import java.util.List;
+
+public class OrderResponse {
+  private String id;
+  private String customerId;
+  private List<Item> items;
+  @MoneyAmount
+  private long total;
+  private OrderStatus status;
+
+  public String getId() { return id; }
+  public void setId(String id) { this.id = id; }
+  public String getCustomerId() { return customerId; }
+  public void setCustomerId(String customerId) { this.customerId = customerId; }
+  public List<Item> getItems() { return items; }
+  public void setItems(List<Item> items) { this.items = items; }
+  public long getTotal() { return total; }
+  public void setTotal(long total) { this.total = total; }
+  public OrderStatus getStatus() { return status; }
+  public void setStatus(OrderStatus status) { this.status = status; }
+
+  public static class Item {
+    private Long id;
+    private String sku;
+    private int qty;
+    @MoneyAmount
+    private long unitPrice;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    public int getQty() { return qty; }
+    public void setQty(int qty) { this.qty = qty; }
+    public long getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(long unitPrice) { this.unitPrice = unitPrice; }
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.challenge.api.dto;
+
+import com.example.challenge.domain.MoneyAmount;
+import com.example.challenge.domain.OrderStatus;
+
+import java.util.Map;
+
+public class OrderSummaryResponse {
+  private long count;
+  @MoneyAmount
+  private long total;
+  private Map<OrderStatus, StatusTotals> byStatus;
+
+  public long getCount() { return count; }
+  public void setCount(long count) { this.count = count; }
+  public long getTotal() { return total; }
+  public void setTotal(long total) { this.total = total; }
+  public Map<OrderStatus, StatusTotals> getByStatus() { return byStatus; }
+  public void setByStatus(Map<OrderStatus, StatusTotals> byStatus) { this.byStatus = byStatus; }
+
+  public static class StatusTotals {
+    private long count;
+    @MoneyAmount
+    private long total;
+
+    public StatusTotals() {
+    }
+
+    public StatusTotals(long count, long total) {
+      this.count = count;
+      this.total = total;
+    }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+  }
+}
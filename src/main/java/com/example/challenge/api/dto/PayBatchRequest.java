@@ -0,0 +1,22 @@
+package com.example.challenge.api.dto;
+
+import com.example.challenge.domain.OrderStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class PayBatchRequest {
+  /** Teto fixo do corpo; o limite efetivo do lote é payment.batch.max-size. */
+  public static final int MAX_ORDER_IDS = 10_000;
+
+  @Size(min = 1, max = MAX_ORDER_IDS)
+  private List<@NotBlank String> orderIds;
+
+  private OrderStatus status;
+
+  public List<String> getOrderIds() { return orderIds; }
+  public void setOrderIds(List<String> orderIds) { this.orderIds = orderIds; }
+  public OrderStatus getStatus() { return status; }
+  public void setStatus(OrderStatus status) { this.status = status; }
+}
@@ -1,5 +1,7 @@
 package com.example.challenge.api.dto;
 
+import com.example.challenge.domain.MoneyAmount;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -7,6 +9,7 @@ import java.util.List;
 
 public class UpdateOrderRequest {
   @NotEmpty
+  @Valid
   private List<Item> items;
 
   public List<Item> getItems() { return items; }
@@ -17,14 +20,16 @@ public class UpdateOrderRequest {
     private String sku;
     @Min(1)
     private int qty;
+    /** Em centavos; no JSON, decimal (49.90). */
     @Min(0)
-    private double unitPrice;
+    @MoneyAmount
+    private long unitPrice;
 
     public String getSku() { return sku; }
     public void setSku(String sku) { this.sku = sku; }
     public int getQty() { return qty; }
     public void setQty(int qty) { this.qty = qty; }
-    public double getUnitPrice() { return unitPrice; }
-    public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
+    public long getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(long unitPrice) { this.unitPrice = unitPrice; }
   }
 }
@@ -0,0 +1,90 @@
+package com.example.challenge.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Mapa em memória limitado a {@code maxEntries}, com LRU aproximado: as chaves são divididas em
+ * até 64 segmentos, cada um um LinkedHashMap em ordem de acesso com lock próprio, e o segmento
+ * cheio descarta os menos usados (O(1) por inserção). Quem usa sincroniza no {@link Segment}
+ * devolvido por {@link #segment} antes de qualquer acesso a ele.
+ */
+public final class SegmentedLru<K, V> {
+
+  private static final int MAX_SEGMENTS = 64;
+  // Caches pequenos ficam com um segmento só: LRU exato em vez de limites por faixa minúsculos.
+  private static final int MIN_SEGMENT_SIZE = 16;
+
+  /** LinkedHashMap em ordem de acesso; todo acesso sob o monitor do próprio segmento. */
+  public static final class Segment<K, V> extends LinkedHashMap<K, V> {
+    private final int capacity;
+    private final Predicate<V> pinned;
+    private final Consumer<V> evicted;
+    private long generation;
+
+    Segment(int capacity, Predicate<V> pinned, Consumer<V> evicted) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+      this.pinned = pinned;
+      this.evicted = evicted;
+    }
+
+    /** Contador do chamador, avançado a cada invalidação do segmento. */
+    public long generation() {
+      return generation;
+    }
+
+    public void advanceGeneration() {
+      generation++;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      // Descarta os menos usados, pulando as entradas fixadas; só os do começo da fila são
+      // percorridos.
+      Iterator<V> oldest = values().iterator();
+      while (size() > capacity && oldest.hasNext()) {
+        V value = oldest.next();
+        if (!pinned.test(value)) {
+          oldest.remove();
+          evicted.accept(value);
+        }
+      }
+      return false;
+    }
+  }
+
+  private final Segment<K, V>[] segments;
+
+  /**
+   * @param pinned entradas que o LRU não descarta (ex.: um fetch ainda em andamento)
+   * @param evicted chamado, com o monitor do segmento, para cada entrada descartada por tamanho
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public SegmentedLru(int maxEntries, Predicate<V> pinned, Consumer<V> evicted) {
+    int max = Math.max(1, maxEntries);
+    int count = Math.max(1, Math.min(MAX_SEGMENTS, max / MIN_SEGMENT_SIZE));
+    this.segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      segments[i] = new Segment<>(max / count + (i < max % count ? 1 : 0), pinned, evicted);
+    }
+  }
+
+  public Segment<K, V> segment(K key) {
+    int h = key.hashCode();
+    return segments[Math.floorMod(h ^ (h >>> 16), segments.length)];
+  }
+
+  public int size() {
+    int total = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        total += segment.size();
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.challenge.catalog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "dummyjson")
+public class CatalogProperties {
+  private String baseUrl = "https://dummyjson.com";
+  private Duration connectTimeout = Duration.ofSeconds(2);
+  private Duration requestTimeout = Duration.ofSeconds(3);
+  private Catalog catalog = new Catalog();
+
+  /**
+   * Cache de produtos: entradas válidas por ttl, recarregadas em segundo plano quando faltam
+   * menos de refresh-ahead para expirar; SKUs inexistentes ficam em cache por negative-ttl.
+   */
+  public static class Catalog {
+    private boolean enabled = false;
+    private int maxEntries = 10000;
+    private Duration ttl = Duration.ofMinutes(10);
+    private Duration refreshAhead = Duration.ofMinutes(2);
+    private Duration negativeTtl = Duration.ofMinutes(1);
+    private int parallelism = 8;
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean v) { this.enabled = v; }
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int v) { this.maxEntries = v; }
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration v) { this.ttl = v; }
+    public Duration getRefreshAhead() { return refreshAhead; }
+    public void setRefreshAhead(Duration v) { this.refreshAhead = v; }
+    public Duration getNegativeTtl() { return negativeTtl; }
+    public void setNegativeTtl(Duration v) { this.negativeTtl = v; }
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int v) { this.parallelism = v; }
+  }
+
+  public String getBaseUrl() { return baseUrl; }
+  public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+  public Duration getConnectTimeout() { return connectTimeout; }
+  public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+  public Duration getRequestTimeout() { return requestTimeout; }
+  public void setRequestTimeout(Duration requestTimeout) { this.requestTimeout = requestTimeout; }
+  public Catalog getCatalog() { return catalog; }
+  public void setCatalog(Catalog catalog) { this.catalog = catalog; }
+}
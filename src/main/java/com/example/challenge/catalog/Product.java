@@ -0,0 +1,20 @@
+package com.example.challenge.catalog;
+
+import com.example.challenge.domain.MoneyAmount;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Product {
+  private String id;
+  private String title;
+  /** Em centavos. */
+  @MoneyAmount
+  private long price;
+
+  public String getId() { return id; }
+  public void setId(String id) { this.id = id; }
+  public String getTitle() { return title; }
+  public void setTitle(String title) { this.title = title; }
+  public long getPrice() { return price; }
+  public void setPrice(long price) { this.price = price; }
+}
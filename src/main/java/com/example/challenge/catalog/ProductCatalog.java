@@ -0,0 +1,246 @@
+package com.example.challenge.catalog;
+
+import com.example.challenge.cache.SegmentedLru;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cliente do catálogo DummyJSON ({@code GET /products/{sku}}) com cache em memória:
+ * <ul>
+ * <li>limitado a dummyjson.catalog.max-entries num {@link SegmentedLru}; entradas ainda carregando
+ * não são descartadas (outros esperam por elas);</li>
+ * <li>TTL com refresh-ahead: perto de expirar a entrada é recarregada em segundo plano e a antiga
+ * continua sendo servida;</li>
+ * <li>cache negativo para SKUs inexistentes (404);</li>
+ * <li>misses concorrentes do mesmo SKU compartilham um único fetch;</li>
+ * <li>{@link #resolve} busca em paralelo todos os SKUs ausentes de um pedido.</li>
+ * </ul>
+ * Erros de rede não ficam em cache: a próxima consulta tenta de novo.
+ */
+@Component
+public class ProductCatalog {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+  private final CatalogProperties props;
+  private final ObjectMapper mapper;
+  private final HttpClient http;
+  private final ExecutorService executor;
+  private final SegmentedLru<String, Entry> entries;
+
+  private final long ttlNanos;
+  private final long refreshAtNanos;
+  private final long negativeTtlNanos;
+
+  private final Counter hits;
+  private final Counter negativeHits;
+  private final Counter misses;
+  private final Counter coalesced;
+  private final Counter refreshes;
+  private final Counter evictions;
+  private final Counter fetchErrors;
+
+  private static final class Entry {
+    final CompletableFuture<Optional<Product>> value = new CompletableFuture<>();
+    final AtomicBoolean refreshing = new AtomicBoolean();
+    volatile long loadedAt;
+
+    boolean isLoading() {
+      return !value.isDone();
+    }
+  }
+
+  public ProductCatalog(CatalogProperties props, ObjectMapper mapper, MeterRegistry registry) {
+    this.props = props;
+    this.mapper = mapper;
+    CatalogProperties.Catalog catalog = props.getCatalog();
+    AtomicInteger threads = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(catalog.getParallelism(), r -> {
+      Thread t = new Thread(r, "product-catalog-" + threads.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.http = HttpClient.newBuilder().connectTimeout(props.getConnectTimeout()).build();
+    this.ttlNanos = catalog.getTtl().toNanos();
+    this.refreshAtNanos = Math.max(0, ttlNanos - catalog.getRefreshAhead().toNanos());
+    this.negativeTtlNanos = catalog.getNegativeTtl().toNanos();
+    this.hits = requests(registry, "hit");
+    this.negativeHits = requests(registry, "negative_hit");
+    this.misses = requests(registry, "miss");
+    this.coalesced = requests(registry, "coalesced");
+    this.refreshes = Counter.builder("catalog.cache.refreshes").register(registry);
+    this.evictions = Counter.builder("catalog.cache.evictions").register(registry);
+    this.fetchErrors = Counter.builder("catalog.fetch.errors").register(registry);
+    this.entries = new SegmentedLru<>(catalog.getMaxEntries(), Entry::isLoading,
+        entry -> evictions.increment());
+    Gauge.builder("catalog.cache.size", this, ProductCatalog::size).register(registry);
+  }
+
+  public boolean isEnabled() {
+    return props.getCatalog().isEnabled();
+  }
+
+  /**
+   * Produtos de todos os SKUs informados. Lança {@link UnknownSkuException} se algum não existir
+   * e {@link CatalogUnavailableException} se o catálogo não responder a tempo.
+   */
+  public Map<String, Product> resolve(Collection<String> skus) {
+    Map<String, CompletableFuture<Optional<Product>>> lookups = new LinkedHashMap<>();
+    skus.forEach(sku -> lookups.computeIfAbsent(sku, this::lookup));
+
+    try {
+      CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+          .get(props.getRequestTimeout().toMillis() * 2, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new CatalogUnavailableException("Catálogo de produtos indisponível", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CatalogUnavailableException("Consulta ao catálogo interrompida", e);
+    }
+
+    Map<String, Product> products = new LinkedHashMap<>();
+    List<String> unknown = lookups.entrySet().stream().filter(e -> e.getValue().join().isEmpty())
+        .map(Map.Entry::getKey).toList();
+    if (!unknown.isEmpty()) {
+      throw new UnknownSkuException(unknown);
+    }
+    lookups.forEach((sku, product) -> products.put(sku, product.join().get()));
+    return products;
+  }
+
+  public CompletableFuture<Optional<Product>> lookup(String sku) {
+    long now = System.nanoTime();
+    SegmentedLru.Segment<String, Entry> segment = entries.segment(sku);
+    Entry entry;
+    boolean created = false;
+    synchronized (segment) {
+      entry = segment.get(sku);
+      if (entry == null || !isUsable(entry, now)) {
+        entry = new Entry();
+        segment.put(sku, entry);
+        created = true;
+      }
+    }
+    if (!created) {
+      recordHit(sku, entry, now);
+      return entry.value;
+    }
+
+    misses.increment();
+    Entry loading = entry;
+    executor.execute(() -> load(sku, loading));
+    return entry.value;
+  }
+
+  private void recordHit(String sku, Entry entry, long now) {
+    if (entry.isLoading() || entry.value.isCompletedExceptionally()) {
+      coalesced.increment();
+      return;
+    }
+    if (entry.value.join().isPresent()) {
+      hits.increment();
+      if (now - entry.loadedAt > refreshAtNanos && entry.refreshing.compareAndSet(false, true)) {
+        refreshes.increment();
+        executor.execute(() -> refresh(sku, entry));
+      }
+    } else {
+      negativeHits.increment();
+    }
+  }
+
+  private void load(String sku, Entry entry) {
+    try {
+      Optional<Product> product = fetch(sku);
+      entry.loadedAt = System.nanoTime();
+      entry.value.complete(product);
+    } catch (Exception e) {
+      fetchErrors.increment();
+      SegmentedLru.Segment<String, Entry> segment = entries.segment(sku);
+      synchronized (segment) {
+        segment.remove(sku, entry);
+      }
+      entry.value.completeExceptionally(e);
+    }
+  }
+
+  private void refresh(String sku, Entry stale) {
+    Entry fresh = new Entry();
+    try {
+      Optional<Product> product = fetch(sku);
+      fresh.loadedAt = System.nanoTime();
+      fresh.value.complete(product);
+      SegmentedLru.Segment<String, Entry> segment = entries.segment(sku);
+      synchronized (segment) {
+        segment.replace(sku, stale, fresh);
+      }
+    } catch (Exception e) {
+      fetchErrors.increment();
+      log.warn("Falha ao recarregar SKU {} do catálogo: {}", sku, e.getMessage());
+      stale.refreshing.set(false);
+    }
+  }
+
+  private Optional<Product> fetch(String sku) throws IOException, InterruptedException {
+    URI uri = URI.create(props.getBaseUrl() + "/products/" + URLEncoder.encode(sku, StandardCharsets.UTF_8));
+    HttpRequest request = HttpRequest.newBuilder(uri).timeout(props.getRequestTimeout()).GET().build();
+    HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() == 404) {
+      return Optional.empty();
+    }
+    if (response.statusCode() != 200) {
+      throw new IOException("Catálogo respondeu HTTP " + response.statusCode() + " para SKU " + sku);
+    }
+    return Optional.of(mapper.readValue(response.body(), Product.class));
+  }
+
+  private boolean isUsable(Entry entry, long now) {
+    if (entry.isLoading()) {
+      return true;
+    }
+    if (entry.value.isCompletedExceptionally()) {
+      return false;
+    }
+    long ttl = entry.value.join().isPresent() ? ttlNanos : negativeTtlNanos;
+    return now - entry.loadedAt <= ttl;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private static Counter requests(MeterRegistry registry, String result) {
+    return Counter.builder("catalog.cache.requests").tag("result", result).register(registry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,13 @@
+package com.example.challenge.catalog;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownSkuException extends RuntimeException {
+  public UnknownSkuException(Collection<String> skus) {
+    super("Produto(s) inexistente(s) no catálogo: " + String.join(", ", skus));
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.challenge.domain;
+
+/** Item de um pedido arquivado, gravado dentro do JSON de {@link ArchivedOrder}; preço em centavos. */
+public record ArchivedItem(Long id, String sku, int qty, long unitPrice) {
+
+  static ArchivedItem of(OrderItem item) {
+    return new ArchivedItem(item.getId(), item.getSku(), item.getQty(), item.getUnitPrice());
+  }
+
+  OrderItem toItem(Order order) {
+    OrderItem item = new OrderItem(id);
+    item.setSku(sku);
+    item.setQty(qty);
+    item.setUnitPrice(unitPrice);
+    item.setOrder(order);
+    return item;
+  }
+}
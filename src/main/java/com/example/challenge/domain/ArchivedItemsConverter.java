@@ -0,0 +1,36 @@
+package com.example.challenge.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/** Itens de um pedido arquivado como um único JSON: uma coluna em vez de uma linha por item. */
+@Converter
+public class ArchivedItemsConverter implements AttributeConverter<List<ArchivedItem>, String> {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final TypeReference<List<ArchivedItem>> TYPE = new TypeReference<>() {
+  };
+
+  @Override
+  public String convertToDatabaseColumn(List<ArchivedItem> items) {
+    try {
+      return MAPPER.writeValueAsString(items);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Falha ao serializar itens arquivados", e);
+    }
+  }
+
+  @Override
+  public List<ArchivedItem> convertToEntityAttribute(String json) {
+    try {
+      return MAPPER.readValue(json, TYPE);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Falha ao ler itens arquivados", e);
+    }
+  }
+}
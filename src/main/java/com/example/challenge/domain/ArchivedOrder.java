@@ -0,0 +1,72 @@
+package com.example.challenge.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Pedido em status final movido de orders/order_items pelo {@code OrderArchiver}: uma linha por
+ * pedido, itens desnormalizados em JSON. Nunca muda depois de gravado.
+ */
+@Entity
+@Table(name = "orders_archive")
+public class ArchivedOrder {
+
+  @Id
+  @Column(length = 36)
+  private String id;
+
+  private String customerId;
+
+  @Enumerated(EnumType.STRING)
+  private OrderStatus status;
+
+  /** Em centavos. */
+  @Column(name = "total_cents")
+  private long total;
+
+  /** Versão do pedido ao ser arquivado: a ETag continua a mesma. */
+  private Long version;
+
+  private Instant updatedAt;
+
+  private Instant archivedAt;
+
+  @Lob
+  @Column(name = "items_json")
+  @Convert(converter = ArchivedItemsConverter.class)
+  private List<ArchivedItem> items;
+
+  protected ArchivedOrder() {
+  }
+
+  public static ArchivedOrder of(Order order, Instant archivedAt) {
+    ArchivedOrder archived = new ArchivedOrder();
+    archived.id = order.getId();
+    archived.customerId = order.getCustomerId();
+    archived.status = order.getStatus();
+    archived.total = order.getTotal();
+    archived.version = order.getVersion();
+    archived.updatedAt = order.getUpdatedAt();
+    archived.archivedAt = archivedAt;
+    archived.items = order.getItems().stream().map(ArchivedItem::of).toList();
+    return archived;
+  }
+
+  /** O pedido como era antes de arquivado, fora do contexto de persistência. */
+  public Order toOrder() {
+    Order order = new Order(id, version, updatedAt);
+    order.setCustomerId(customerId);
+    order.setStatus(status);
+    order.setTotal(total);
+    items.forEach(item -> order.getItems().add(item.toItem(order)));
+    return order;
+  }
+
+  public String getId() { return id; }
+  public OrderStatus getStatus() { return status; }
+  public long getTotal() { return total; }
+  public Long getVersion() { return version; }
+  public Instant getArchivedAt() { return archivedAt; }
+}
@@ -0,0 +1,42 @@
+package com.example.challenge.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_created_at", columnList = "createdAt"))
+public class IdempotencyRecord {
+
+  @Id
+  @Column(name = "idempotency_key", length = 255)
+  private String key;
+
+  @Column(length = 512)
+  private String scope;
+
+  private int status;
+
+  private String contentType;
+
+  private String location;
+
+  @Column(length = 1048576)
+  private byte[] body;
+
+  private Instant createdAt;
+
+  public String getKey() { return key; }
+  public void setKey(String key) { this.key = key; }
+  public String getScope() { return scope; }
+  public void setScope(String scope) { this.scope = scope; }
+  public int getStatus() { return status; }
+  public void setStatus(int status) { this.status = status; }
+  public String getContentType() { return contentType; }
+  public void setContentType(String contentType) { this.contentType = contentType; }
+  public String getLocation() { return location; }
+  public void setLocation(String location) { this.location = location; }
+  public byte[] getBody() { return body; }
+  public void setBody(byte[] body) { this.body = body; }
+  public Instant getCreatedAt() { return createdAt; }
+  public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
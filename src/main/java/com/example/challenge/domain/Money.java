@@ -0,0 +1,135 @@
+package com.example.challenge.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+
+/**
+ * Valores monetários em centavos ({@code long}), sem objeto por valor: somar e multiplicar não aloca
+ * e o resultado é exato. Na API o valor continua decimal ({@code 49.90}); a conversão é feita por
+ * {@link MoneyAmount} sem passar por {@code double} ou {@code BigDecimal}.
+ */
+public final class Money {
+
+  public static final int SCALE = 2;
+  public static final long CENTS_PER_UNIT = 100;
+
+  private Money() {
+  }
+
+  /** {@code units} inteiros (reais) em centavos. */
+  public static long ofUnits(long units) {
+    return Math.multiplyExact(units, CENTS_PER_UNIT);
+  }
+
+  /** Preço unitário × quantidade; {@link ArithmeticException} em overflow. */
+  public static long times(long unitPrice, int qty) {
+    return Math.multiplyExact(unitPrice, (long) qty);
+  }
+
+  public static long parse(CharSequence text) {
+    char[] chars = text.toString().toCharArray();
+    return parse(chars, 0, chars.length);
+  }
+
+  /**
+   * Lê um decimal ({@code "-12"}, {@code "12.3"}, {@code "12.30"}) direto do buffer. Mais de duas
+   * casas decimais, expoente ou overflow são rejeitados com {@link IllegalArgumentException}.
+   */
+  public static long parse(char[] buf, int offset, int len) {
+    int i = offset;
+    int end = offset + len;
+    boolean negative = i < end && buf[i] == '-';
+    if (negative || (i < end && buf[i] == '+')) {
+      i++;
+    }
+    long units = 0;
+    int intDigits = 0;
+    while (i < end && buf[i] >= '0' && buf[i] <= '9') {
+      units = Math.addExact(Math.multiplyExact(units, 10L), buf[i++] - '0');
+      intDigits++;
+    }
+    long fraction = 0;
+    int fractionDigits = 0;
+    if (i < end && buf[i] == '.') {
+      i++;
+      while (i < end && buf[i] >= '0' && buf[i] <= '9') {
+        if (++fractionDigits > SCALE) {
+          if (buf[i] != '0') {
+            throw invalid(buf, offset, len);
+          }
+        } else {
+          fraction = fraction * 10 + (buf[i] - '0');
+        }
+        i++;
+      }
+    }
+    if (i != end || intDigits + fractionDigits == 0) {
+      throw invalid(buf, offset, len);
+    }
+    for (int d = Math.min(fractionDigits, SCALE); d < SCALE; d++) {
+      fraction *= 10;
+    }
+    long cents = Math.addExact(Math.multiplyExact(units, CENTS_PER_UNIT), fraction);
+    return negative ? -cents : cents;
+  }
+
+  public static String format(long cents) {
+    long abs = Math.abs(cents);
+    long fraction = abs % CENTS_PER_UNIT;
+    StringBuilder sb = new StringBuilder(24);
+    if (cents < 0) {
+      sb.append('-');
+    }
+    sb.append(abs / CENTS_PER_UNIT).append('.');
+    if (fraction < 10) {
+      sb.append('0');
+    }
+    return sb.append(fraction).toString();
+  }
+
+  private static IllegalArgumentException invalid(char[] buf, int offset, int len) {
+    return new IllegalArgumentException("Valor monetário inválido: '" + new String(buf, offset, len)
+        + "' (máximo " + SCALE + " casas decimais)");
+  }
+
+  /** Escreve centavos como número JSON decimal ({@code 1234 -> 12.34}). */
+  public static class Serializer extends StdScalarSerializer<Long> {
+    public Serializer() {
+      super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long cents, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      gen.writeNumber(format(cents));
+    }
+  }
+
+  /** Lê número ou string JSON decimal como centavos, a partir do buffer do parser. */
+  public static class Deserializer extends StdScalarDeserializer<Long> {
+    public Deserializer() {
+      super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      JsonToken token = p.currentToken();
+      if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+          && token != JsonToken.VALUE_STRING) {
+        return Long.class.cast(ctxt.handleUnexpectedToken(Long.class, p));
+      }
+      try {
+        return parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+      } catch (IllegalArgumentException | ArithmeticException e) {
+        throw InvalidFormatException.from(p, e.getMessage(), p.getText(), long.class);
+      }
+    }
+  }
+}
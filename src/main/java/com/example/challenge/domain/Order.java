@@ -1,12 +1,15 @@
 package com.example.challenge.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_status_updated_at", columnList = "status, updatedAt"))
 public class Order {
 
   @Id
@@ -16,24 +19,49 @@ public class Order {
   private String customerId;
 
   @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchSize(size = 100)
   private List<OrderItem> items = new ArrayList<>();
 
-  private double total;
+  /** Em centavos. */
+  @Column(name = "total_cents")
+  @MoneyAmount
+  private long total;
 
   @Enumerated(EnumType.STRING)
   private OrderStatus status = OrderStatus.NEW;
 
+  @Version
+  private Long version;
+
+  /** Última escrita (criação, itens ou status); base da retenção do {@code OrderArchiver}. */
+  private Instant updatedAt;
+
   public Order() {
     this.id = UUID.randomUUID().toString();
   }
 
+  /** Pedido restaurado do arquivo: não gerenciado, com id e versão originais. */
+  Order(String id, Long version, Instant updatedAt) {
+    this.id = id;
+    this.version = version;
+    this.updatedAt = updatedAt;
+  }
+
+  @PrePersist
+  @PreUpdate
+  void touch() {
+    updatedAt = Instant.now();
+  }
+
   public String getId() { return id; }
   public String getCustomerId() { return customerId; }
   public void setCustomerId(String customerId) { this.customerId = customerId; }
   public List<OrderItem> getItems() { return items; }
   public void setItems(List<OrderItem> items) { this.items = items; }
-  public double getTotal() { return total; }
-  public void setTotal(double total) { this.total = total; }
+  public long getTotal() { return total; }
+  public void setTotal(long total) { this.total = total; }
   public OrderStatus getStatus() { return status; }
   public void setStatus(OrderStatus status) { this.status = status; }
+  public Long getVersion() { return version; }
+  public Instant getUpdatedAt() { return updatedAt; }
 }
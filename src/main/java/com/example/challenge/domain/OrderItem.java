@@ -9,7 +9,10 @@ import jakarta.validation.constraints.NotBlank;
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  // Sequence com pool (50 ids por chamada) em vez de IDENTITY: IDENTITY desliga o batch de inserts.
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+  @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank
@@ -18,21 +21,32 @@ public class OrderItem {
   @Min(1)
   private int qty;
 
+  /** Em centavos. */
   @Min(0)
-  private double unitPrice;
+  @Column(name = "unit_price_cents")
+  @MoneyAmount
+  private long unitPrice;
 
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "order_id")
   @JsonIgnore
   private Order order;
 
+  public OrderItem() {
+  }
+
+  /** Item restaurado do arquivo, com o id original. */
+  OrderItem(Long id) {
+    this.id = id;
+  }
+
   public Long getId() { return id; }
   public String getSku() { return sku; }
   public void setSku(String sku) { this.sku = sku; }
   public int getQty() { return qty; }
   public void setQty(int qty) { this.qty = qty; }
-  public double getUnitPrice() { return unitPrice; }
-  public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
+  public long getUnitPrice() { return unitPrice; }
+  public void setUnitPrice(long unitPrice) { this.unitPrice = unitPrice; }
   public Order getOrder() { return order; }
   public void setOrder(Order order) { this.order = order; }
 }
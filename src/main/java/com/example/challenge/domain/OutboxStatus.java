@@ -0,0 +1,2 @@
+package com.example.challenge.domain;
+public enum OutboxStatus { PENDING, CLAIMED, DONE, DEAD }
@@ -0,0 +1,64 @@
+package com.example.challenge.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Intenção de pagamento persistida junto com o /pay. PENDING até um poller reivindicar (CLAIMED);
+ * vira DONE com o resultado final ou DEAD após payment.outbox.max-attempts erros.
+ */
+@Entity
+@Table(name = "payment_outbox", indexes = {
+    @Index(name = "idx_payment_outbox_status_available", columnList = "status, availableAt"),
+    @Index(name = "idx_payment_outbox_order", columnList = "orderId") })
+public class PaymentOutboxEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(length = 36, nullable = false)
+  private String orderId;
+
+  /** Em centavos. */
+  @Column(name = "amount_cents")
+  private long amount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16, nullable = false)
+  private OutboxStatus status = OutboxStatus.PENDING;
+
+  private int attempts;
+
+  @Column(length = 16)
+  private String outcome;
+
+  private Instant createdAt;
+
+  private Instant availableAt;
+
+  private Instant claimedAt;
+
+  private Instant processedAt;
+
+  protected PaymentOutboxEntry() {
+  }
+
+  public PaymentOutboxEntry(String orderId, long amount, Instant now) {
+    this.orderId = orderId;
+    this.amount = amount;
+    this.createdAt = now;
+    this.availableAt = now;
+  }
+
+  public Long getId() { return id; }
+  public String getOrderId() { return orderId; }
+  public long getAmount() { return amount; }
+  public OutboxStatus getStatus() { return status; }
+  public int getAttempts() { return attempts; }
+  public String getOutcome() { return outcome; }
+  public Instant getCreatedAt() { return createdAt; }
+  public Instant getAvailableAt() { return availableAt; }
+  public Instant getClaimedAt() { return claimedAt; }
+  public Instant getProcessedAt() { return processedAt; }
+}
@@ -0,0 +1,48 @@
+package com.example.challenge.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/** Próxima tentativa de pagamento de um pedido, disparada pelo agendador quando vence dueAt. */
+@Entity
+@Table(name = "payment_retries", indexes = {
+    @Index(name = "idx_payment_retries_due_at", columnList = "dueAt"),
+    @Index(name = "idx_payment_retries_order", columnList = "orderId") })
+public class PaymentRetry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(length = 36, nullable = false)
+  private String orderId;
+
+  /** Em centavos. */
+  @Column(name = "amount_cents")
+  private long amount;
+
+  /** Número da tentativa que será feita (a chamada original é a 1). */
+  private int attempt;
+
+  private Instant dueAt;
+
+  private Instant createdAt;
+
+  protected PaymentRetry() {
+  }
+
+  public PaymentRetry(String orderId, long amount, int attempt, Instant dueAt) {
+    this.orderId = orderId;
+    this.amount = amount;
+    this.attempt = attempt;
+    this.dueAt = dueAt;
+    this.createdAt = Instant.now();
+  }
+
+  public Long getId() { return id; }
+  public String getOrderId() { return orderId; }
+  public long getAmount() { return amount; }
+  public int getAttempt() { return attempt; }
+  public Instant getDueAt() { return dueAt; }
+  public Instant getCreatedAt() { return createdAt; }
+}
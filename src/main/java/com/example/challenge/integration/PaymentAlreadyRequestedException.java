@@ -0,0 +1,7 @@
+package com.example.challenge.integration;
+
+public class PaymentAlreadyRequestedException extends RuntimeException {
+  public PaymentAlreadyRequestedException(String message) {
+    super(message);
+  }
+}
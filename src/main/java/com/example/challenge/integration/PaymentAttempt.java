@@ -0,0 +1,42 @@
+package com.example.challenge.integration;
+
+import com.example.challenge.domain.MoneyAmount;
+
+import java.time.Instant;
+
+public class PaymentAttempt {
+
+  public enum State { QUEUED, PROCESSING, PAID, FAILED, DEFERRED, RETRY_SCHEDULED }
+
+  private final String orderId;
+  /** Em centavos. */
+  @MoneyAmount
+  private final long amount;
+  private final Instant requestedAt;
+  private volatile State state;
+  private volatile Instant updatedAt;
+  private volatile String exchangeId;
+
+  public PaymentAttempt(String orderId, long amount, State state) {
+    this.orderId = orderId;
+    this.amount = amount;
+    this.requestedAt = Instant.now();
+    this.state = state;
+    this.updatedAt = requestedAt;
+  }
+
+  void update(State state, String exchangeId) {
+    this.state = state;
+    if (exchangeId != null) {
+      this.exchangeId = exchangeId;
+    }
+    this.updatedAt = Instant.now();
+  }
+
+  public String getOrderId() { return orderId; }
+  public long getAmount() { return amount; }
+  public Instant getRequestedAt() { return requestedAt; }
+  public State getState() { return state; }
+  public Instant getUpdatedAt() { return updatedAt; }
+  public String getExchangeId() { return exchangeId; }
+}
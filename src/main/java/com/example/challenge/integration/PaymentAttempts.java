@@ -0,0 +1,72 @@
+package com.example.challenge.integration;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Registro em memória da última tentativa de pagamento por pedido, consultado via
+ * GET /api/orders/{id}/payment. Limitado a payment.dispatch.max-tracked-attempts entradas
+ * (as mais antigas são descartadas primeiro).
+ */
+@Component
+public class PaymentAttempts {
+
+  private final Map<String, PaymentAttempt> attempts;
+
+  public PaymentAttempts(PaymentProperties props) {
+    int max = props.getDispatch().getMaxTrackedAttempts();
+    this.attempts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PaymentAttempt> eldest) {
+        return size() > max;
+      }
+    });
+  }
+
+  public PaymentAttempt queued(String orderId, long amount) {
+    PaymentAttempt attempt = new PaymentAttempt(orderId, amount, PaymentAttempt.State.QUEUED);
+    attempts.remove(orderId);
+    attempts.put(orderId, attempt);
+    return attempt;
+  }
+
+  public void processing(String orderId, String exchangeId) {
+    transition(orderId, PaymentAttempt.State.PROCESSING, exchangeId);
+  }
+
+  public void paid(String orderId, String exchangeId) {
+    transition(orderId, PaymentAttempt.State.PAID, exchangeId);
+  }
+
+  public void failed(String orderId, String exchangeId) {
+    transition(orderId, PaymentAttempt.State.FAILED, exchangeId);
+  }
+
+  public void deferred(String orderId, String exchangeId) {
+    transition(orderId, PaymentAttempt.State.DEFERRED, exchangeId);
+  }
+
+  public void retryScheduled(String orderId, String exchangeId) {
+    transition(orderId, PaymentAttempt.State.RETRY_SCHEDULED, exchangeId);
+  }
+
+  /** A entrega na fila foi recusada: a tentativa não aconteceu e sai do registro. */
+  public void discard(String orderId, PaymentAttempt attempt) {
+    attempts.remove(orderId, attempt);
+  }
+
+  public Optional<PaymentAttempt> find(String orderId) {
+    return Optional.ofNullable(attempts.get(orderId));
+  }
+
+  private void transition(String orderId, PaymentAttempt.State state, String exchangeId) {
+    PaymentAttempt attempt = attempts.get(orderId);
+    if (attempt != null) {
+      attempt.update(state, exchangeId);
+    }
+  }
+}
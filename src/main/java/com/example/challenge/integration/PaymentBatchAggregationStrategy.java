@@ -0,0 +1,32 @@
+package com.example.challenge.integration;
+
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+
+/**
+ * Junta o resultado de cada pedido do split em um único PaymentBatchResult.
+ * Exceções das sub-exchanges viram Outcome.ERROR para não abortar o lote.
+ */
+class PaymentBatchAggregationStrategy implements AggregationStrategy {
+
+  @Override
+  public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+    PaymentBatchResult result = oldExchange == null
+        ? new PaymentBatchResult()
+        : oldExchange.getIn().getBody(PaymentBatchResult.class);
+
+    String orderId = newExchange.getProperty("orderId", String.class);
+    PaymentBatchResult.Outcome outcome = newExchange.getException() != null
+        ? PaymentBatchResult.Outcome.ERROR
+        : newExchange.getProperty(PaymentRoute.OUTCOME_PROPERTY, PaymentBatchResult.Outcome.ERROR,
+            PaymentBatchResult.Outcome.class);
+    result.add(orderId, outcome);
+
+    if (oldExchange == null) {
+      newExchange.setException(null);
+      newExchange.getIn().setBody(result);
+      return newExchange;
+    }
+    return oldExchange;
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.challenge.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PaymentBatchResult {
+
+  /** NOT_FOUND: id pedido no lote que não existe; não passa pela rota. */
+  public enum Outcome { PAID, FAILED, DEFERRED, RETRY_SCHEDULED, ERROR, SKIPPED, NOT_FOUND }
+
+  public static class Entry {
+    private final String orderId;
+    private final Outcome outcome;
+
+    public Entry(String orderId, Outcome outcome) {
+      this.orderId = orderId;
+      this.outcome = outcome;
+    }
+
+    public String getOrderId() { return orderId; }
+    public Outcome getOutcome() { return outcome; }
+  }
+
+  private final List<Entry> results = new ArrayList<>();
+  private int paid;
+  private int failed;
+  private int deferred;
+  private int retryScheduled;
+  private int errors;
+  private int skipped;
+  private int notFound;
+
+  public void add(String orderId, Outcome outcome) {
+    results.add(new Entry(orderId, outcome));
+    switch (outcome) {
+      case PAID -> paid++;
+      case FAILED -> failed++;
+      case DEFERRED -> deferred++;
+      case RETRY_SCHEDULED -> retryScheduled++;
+      case ERROR -> errors++;
+      case SKIPPED -> skipped++;
+      case NOT_FOUND -> notFound++;
+    }
+  }
+
+  public void addAll(PaymentBatchResult other) {
+    other.results.forEach(e -> add(e.getOrderId(), e.getOutcome()));
+  }
+
+  public int getRequested() { return results.size(); }
+  public int getPaid() { return paid; }
+  public int getFailed() { return failed; }
+  public int getDeferred() { return deferred; }
+  public int getRetryScheduled() { return retryScheduled; }
+  public int getErrors() { return errors; }
+  public int getSkipped() { return skipped; }
+  public int getNotFound() { return notFound; }
+  public List<Entry> getResults() { return results; }
+}
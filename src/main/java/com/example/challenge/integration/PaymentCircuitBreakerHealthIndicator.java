@@ -0,0 +1,41 @@
+package com.example.challenge.integration;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expõe o estado do circuit breaker/bulkhead de pagamento em /actuator/health. O indicador fica UP
+ * mesmo com o circuito aberto: o provedor fora do ar não deve derrubar o CRUD de pedidos.
+ */
+@Component
+public class PaymentCircuitBreakerHealthIndicator implements HealthIndicator {
+
+  private final PaymentHttpGuard guard;
+
+  public PaymentCircuitBreakerHealthIndicator(PaymentHttpGuard guard) {
+    this.guard = guard;
+  }
+
+  @Override
+  public Health health() {
+    Health.Builder health = Health.up();
+    CircuitBreaker cb = guard.getCircuitBreaker();
+    if (cb != null) {
+      CircuitBreaker.Metrics m = cb.getMetrics();
+      health.withDetail("state", cb.getState())
+          .withDetail("failureRate", m.getFailureRate())
+          .withDetail("bufferedCalls", m.getNumberOfBufferedCalls())
+          .withDetail("failedCalls", m.getNumberOfFailedCalls())
+          .withDetail("notPermittedCalls", m.getNumberOfNotPermittedCalls());
+    }
+    Bulkhead bh = guard.getBulkhead();
+    if (bh != null) {
+      health.withDetail("bulkheadAvailableCalls", bh.getMetrics().getAvailableConcurrentCalls())
+          .withDetail("bulkheadMaxCalls", bh.getMetrics().getMaxAllowedConcurrentCalls());
+    }
+    return health.build();
+  }
+}
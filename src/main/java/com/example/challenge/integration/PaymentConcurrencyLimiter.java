@@ -0,0 +1,217 @@
+package com.example.challenge.integration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntSupplier;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite adaptativo de chamadas simultâneas ao provedor de pagamento, no estilo do controle de
+ * congestionamento do TCP (AIMD):
+ * <ul>
+ * <li>a latência de cada chamada é comparada com a menor latência recente (baseline); dentro da
+ * tolerância, e com o limite em uso, o limite cresce 1/limite (≈ +1 a cada "rodada" de chamadas);</li>
+ * <li>latência inflada, timeout/erro de conexão ou 429/503/504 do provedor multiplicam o limite por
+ * payment.limiter.backoff-ratio, no máximo uma vez por latência medida, para uma rajada de
+ * respostas lentas contar como um único sinal;</li>
+ * <li>sem vaga, a chamada espera até payment.limiter.max-wait; o /pay consulta {@link #saturated}
+ * e responde 429 em vez de empilhar mais pagamentos quando o trabalho parado à frente dele (fila
+ * SEDA, pistas e chamadas esperando vaga) chega a payment.limiter.max-queue.</li>
+ * </ul>
+ * Métricas: payment.limiter.limit, payment.limiter.in.flight, payment.limiter.waiting e
+ * payment.limiter.rejected{stage=call|dispatch}.
+ */
+@Component
+public class PaymentConcurrencyLimiter {
+
+  private final PaymentProperties.Limiter config;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final Counter rejectedCalls;
+  private final Counter rejectedDispatches;
+  private volatile IntSupplier queued = () -> 0;
+
+  private double limit;
+  private int inFlight;
+  private int waiting;
+  private long nextDecrease = System.nanoTime();
+  // Menor latência da janela atual e da anterior: o baseline acompanha o provedor se ele ficar
+  // permanentemente mais lento, sem esquecer tudo a cada janela.
+  private long windowMin = Long.MAX_VALUE;
+  private long previousWindowMin = Long.MAX_VALUE;
+  private long windowStart = System.nanoTime();
+
+  public PaymentConcurrencyLimiter(PaymentProperties props, MeterRegistry registry) {
+    this.config = props.getLimiter();
+    this.limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), config.getInitialLimit()));
+    this.rejectedCalls = Counter.builder("payment.limiter.rejected").tag("stage", "call").register(registry);
+    this.rejectedDispatches = Counter.builder("payment.limiter.rejected").tag("stage", "dispatch").register(registry);
+    Gauge.builder("payment.limiter.limit", this, PaymentConcurrencyLimiter::limit)
+        .description("Chamadas simultâneas permitidas ao provedor de pagamento").register(registry);
+    Gauge.builder("payment.limiter.in.flight", this, PaymentConcurrencyLimiter::inFlight).register(registry);
+    Gauge.builder("payment.limiter.waiting", this, PaymentConcurrencyLimiter::waiting).register(registry);
+  }
+
+  /** Ocupa uma vaga, esperando até max-wait; lança PaymentLimitExceededException se não houver. */
+  public void acquire() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    lock.lock();
+    try {
+      if (inFlight >= (int) limit) {
+        long remaining = config.getMaxWait().toNanos();
+        waiting++;
+        try {
+          while (inFlight >= (int) limit) {
+            if (remaining <= 0) {
+              rejectedCalls.increment();
+              throw new PaymentLimitExceededException("Limite de " + (int) limit + " chamadas de pagamento simultâneas");
+            }
+            remaining = released.awaitNanos(remaining);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new PaymentLimitExceededException("Interrompido esperando vaga de pagamento");
+        } finally {
+          waiting--;
+        }
+      }
+      inFlight++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Ocupa uma vaga só se houver uma livre agora, sem esperar. */
+  public boolean tryAcquire() {
+    if (!config.isEnabled()) {
+      return true;
+    }
+    lock.lock();
+    try {
+      if (inFlight >= (int) limit) {
+        return false;
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Devolve a vaga com a latência da chamada. {@code congested}: o provedor não respondeu (timeout,
+   * conexão) ou pediu para desacelerar; a latência não entra no baseline.
+   */
+  public void release(long latencyNanos, boolean congested) {
+    if (!config.isEnabled()) {
+      return;
+    }
+    lock.lock();
+    try {
+      long now = System.nanoTime();
+      if (!congested) {
+        sample(latencyNanos, now);
+      }
+      if (congested || inflated(latencyNanos)) {
+        if (now - nextDecrease >= 0) {
+          limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+          nextDecrease = now + latencyNanos;
+        }
+      } else if (inFlight >= limit / 2) {
+        // Só cresce quando o limite está sendo usado; ocioso, a latência boa não prova nada.
+        limit = Math.min(config.getMaxLimit(), limit + 1 / limit);
+      }
+      inFlight--;
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Devolve a vaga sem amostra de latência: chamada que não chegou ao provedor (bulkhead cheio,
+   * circuito aberto) ou a segunda chamada de um hedge.
+   */
+  public void cancel() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    lock.lock();
+    try {
+      inFlight--;
+      released.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Pagamentos aceitos que ainda não chegaram ao limite (fila SEDA, pistas); registrado pela PaymentRoute. */
+  void queued(IntSupplier queued) {
+    this.queued = queued;
+  }
+
+  /**
+   * Pagamentos demais parados antes do provedor (enfileirados mais os que esperam vaga): o /pay
+   * deve recusar (429) em vez de enfileirar.
+   */
+  public boolean saturated() {
+    if (!config.isEnabled()) {
+      return false;
+    }
+    if (queued.getAsInt() + waiting() < config.getMaxQueue()) {
+      return false;
+    }
+    rejectedDispatches.increment();
+    return true;
+  }
+
+  double limit() {
+    lock.lock();
+    try {
+      return limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int inFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int waiting() {
+    lock.lock();
+    try {
+      return waiting;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void sample(long latencyNanos, long now) {
+    if (now - windowStart >= config.getBaselineWindow().toNanos()) {
+      previousWindowMin = windowMin;
+      windowMin = Long.MAX_VALUE;
+      windowStart = now;
+    }
+    windowMin = Math.min(windowMin, latencyNanos);
+  }
+
+  private boolean inflated(long latencyNanos) {
+    long baseline = Math.min(windowMin, previousWindowMin);
+    if (baseline == Long.MAX_VALUE) {
+      return false;
+    }
+    return latencyNanos > baseline * config.getLatencyTolerance() + config.getLatencySlack().toNanos();
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.challenge.integration;
+
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderStatus;
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.ProducerTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entrega o pedido para a rota de pagamento conforme payment.dispatch.mode.
+ * Em ASYNC a chamada só enfileira na SEDA e lança PaymentQueueFullException se a fila estiver cheia;
+ * em ASYNC e BLOCKING lança PaymentLimitExceededException se já há payment.limiter.max-queue
+ * pagamentos parados antes do provedor (fila SEDA, pistas e chamadas esperando vaga no limite).
+ * Em OUTBOX grava a intenção em payment_outbox (PaymentAlreadyRequestedException se já houver
+ * uma aberta).
+ */
+@Component
+public class PaymentDispatcher {
+
+  private final ProducerTemplate template;
+  private final PaymentProperties props;
+  private final PaymentAttempts attempts;
+  private final PaymentOutbox outbox;
+  private final PaymentConcurrencyLimiter limiter;
+
+  public PaymentDispatcher(ProducerTemplate template, PaymentProperties props, PaymentAttempts attempts,
+      PaymentOutbox outbox, PaymentConcurrencyLimiter limiter) {
+    this.template = template;
+    this.props = props;
+    this.attempts = attempts;
+    this.outbox = outbox;
+    this.limiter = limiter;
+  }
+
+  public PaymentAttempt dispatch(Order order) {
+    if (props.getDispatch().getMode() == PaymentProperties.DispatchMode.OUTBOX) {
+      outbox.enqueue(order.getId(), order.getTotal());
+      return attempts.queued(order.getId(), order.getTotal());
+    }
+    if (limiter.saturated()) {
+      throw new PaymentLimitExceededException("Pagamentos demais esperando o provedor");
+    }
+
+    PaymentAttempt attempt = attempts.queued(order.getId(), order.getTotal());
+    Map<String, Object> headers = Map.of("orderId", order.getId(), "amount", order.getTotal());
+
+    if (props.getDispatch().getMode() == PaymentProperties.DispatchMode.BLOCKING) {
+      template.sendBodyAndHeaders(PaymentRoute.DIRECT_PAY, null, headers);
+      return attempt;
+    }
+
+    try {
+      template.sendBodyAndHeaders(PaymentRoute.SEDA_PAY, null, headers);
+    } catch (CamelExecutionException e) {
+      attempts.discard(order.getId(), attempt);
+      throw new PaymentQueueFullException("Fila de pagamentos cheia", e);
+    }
+    return attempt;
+  }
+
+  /**
+   * Paga os pedidos NEW do lote em paralelo pela rota direct:payBatch e devolve o resumo;
+   * os demais entram como SKIPPED sem passar pela rota.
+   */
+  public PaymentBatchResult dispatchBatch(List<Order> orders) {
+    PaymentBatchResult result = new PaymentBatchResult();
+    List<Order> payable = orders.stream().filter(o -> o.getStatus() == OrderStatus.NEW).toList();
+    orders.stream().filter(o -> o.getStatus() != OrderStatus.NEW)
+        .forEach(o -> result.add(o.getId(), PaymentBatchResult.Outcome.SKIPPED));
+
+    if (!payable.isEmpty()) {
+      payable.forEach(o -> attempts.queued(o.getId(), o.getTotal()));
+      result.addAll(template.requestBody(PaymentRoute.DIRECT_PAY_BATCH, payable, PaymentBatchResult.class));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,229 @@
+package com.example.challenge.integration;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.http.base.HttpOperationFailedException;
+import org.apache.camel.support.ExchangeHelper;
+import org.apache.camel.support.service.ServiceHelper;
+import org.apache.camel.support.service.ServiceSupport;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Faz a chamada HTTP de pagamento mandando a exchange para {@code uri}. Com payment.hedge.enabled,
+ * chamadas à success-url (GET, idempotente) viram duas quando a primeira demora mais que o
+ * percentil configurado da latência recente: as duas correm em paralelo em cópias da exchange e o
+ * resultado da que responder primeiro (sucesso ou status HTTP) volta para a exchange original. A
+ * outra termina em segundo plano e só alimenta a janela de latência.
+ * <p>
+ * O crédito de hedge limita a carga extra: cada chamada deposita max-ratio e cada hedge gasta 1.
+ * O hedge também precisa de uma vaga livre no limite adaptativo e no bulkhead
+ * ({@link PaymentHttpGuard#tryAcquireHedge}), sem esperar; ela só é devolvida quando as duas
+ * chamadas terminam, porque a exchange libera a vaga dela assim que a primeira responde.
+ */
+final class PaymentHedger extends ServiceSupport implements Processor {
+
+  private final CamelContext context;
+  private final String uri;
+  private final PaymentProperties props;
+  private final PaymentMetrics metrics;
+  private final PaymentHttpGuard guard;
+  private final LatencyWindow latencies;
+  private final ReentrantLock budgetLock = new ReentrantLock();
+  private double budget;
+  private ProducerTemplate template;
+
+  PaymentHedger(CamelContext context, String uri, PaymentProperties props, PaymentMetrics metrics,
+      PaymentHttpGuard guard) {
+    this.context = context;
+    this.uri = uri;
+    this.props = props;
+    this.metrics = metrics;
+    this.guard = guard;
+    this.latencies = new LatencyWindow(props.getHedge().getWindow(), props.getHedge().getPercentile());
+  }
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    PaymentProperties.Hedge config = props.getHedge();
+    if (!config.isEnabled() || !props.getSuccessUrl().equals(exchange.getProperty("targetUrl", String.class))) {
+      template.send(uri, exchange);
+      return;
+    }
+    deposit(config);
+    CompletableFuture<Exchange> primary = timed(exchange.copy());
+    long delay = delay(config);
+    Exchange winner;
+    try {
+      if (delay < 0) {
+        winner = primary.get();
+      } else {
+        try {
+          winner = primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+          winner = permitted() ? hedge(exchange, primary) : primary.get();
+        }
+      }
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception cause ? cause : e;
+    }
+    ExchangeHelper.copyResults(exchange, winner);
+  }
+
+  /** Espera em nanos antes do hedge; -1 enquanto a janela não tem amostras suficientes. */
+  long delay(PaymentProperties.Hedge config) {
+    if (latencies.size() < config.getMinSamples()) {
+      return -1;
+    }
+    return Math.max(config.getMinDelay().toNanos(), latencies.threshold());
+  }
+
+  /** Registra a latência de uma chamada que teve resposta; a de erros de conexão não serve de referência. */
+  void record(long latencyNanos) {
+    latencies.add(latencyNanos);
+  }
+
+  private CompletableFuture<Exchange> timed(Exchange copy) {
+    long started = System.nanoTime();
+    return template.asyncSend(uri, copy).whenComplete((result, error) -> {
+      if (result != null && answered(result)) {
+        record(System.nanoTime() - started);
+      }
+    });
+  }
+
+  /**
+   * Dispara a segunda chamada e devolve a primeira resposta; erro de conexão numa delas só ganha se
+   * a outra também falhar.
+   */
+  private Exchange hedge(Exchange exchange, CompletableFuture<Exchange> primary) throws Exception {
+    metrics.hedgeFired();
+    Exchange copy = exchange.copy();
+    CompletableFuture<Exchange> second = timed(copy);
+    CompletableFuture.allOf(primary, second).whenComplete((ignored, error) -> guard.releaseHedge());
+    Exchange first = (Exchange) CompletableFuture.anyOf(primary, second).get();
+    if (!answered(first)) {
+      Exchange other = (first == copy ? primary : second).get();
+      if (answered(other)) {
+        first = other;
+      }
+    }
+    if (first == copy) {
+      metrics.hedgeWon();
+    }
+    return first;
+  }
+
+  private static boolean answered(Exchange result) {
+    Exception error = result.getException();
+    return error == null || error instanceof HttpOperationFailedException;
+  }
+
+  /** Crédito e vaga para o hedge; sem vaga livre agora o crédito não é gasto. */
+  private boolean permitted() {
+    if (!guard.tryAcquireHedge()) {
+      return false;
+    }
+    if (!withdraw()) {
+      guard.releaseHedge();
+      return false;
+    }
+    return true;
+  }
+
+  private void deposit(PaymentProperties.Hedge config) {
+    budgetLock.lock();
+    try {
+      budget = Math.min(config.getBurst(), budget + config.getMaxRatio());
+    } finally {
+      budgetLock.unlock();
+    }
+  }
+
+  private boolean withdraw() {
+    budgetLock.lock();
+    try {
+      if (budget < 1) {
+        return false;
+      }
+      budget -= 1;
+      return true;
+    } finally {
+      budgetLock.unlock();
+    }
+  }
+
+  @Override
+  protected void doStart() throws Exception {
+    template = context.createProducerTemplate();
+    if (props.getHedge().isEnabled()) {
+      // Primária e hedge ocupam uma thread cada enquanto esperam o provedor.
+      template.setExecutorService(context.getExecutorServiceManager().newCachedThreadPool(this, "payment-hedge"));
+    }
+    ServiceHelper.startService(template);
+  }
+
+  @Override
+  protected void doStop() throws Exception {
+    ServiceHelper.stopService(template);
+  }
+
+  /**
+   * Últimas {@code capacity} latências em anel. O percentil é recalculado a cada
+   * {@code RECOMPUTE_EVERY} amostras (ordenar a janela inteira a cada chamada seria desperdício).
+   */
+  static final class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final double percentile;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int size;
+    private int next;
+    private int sinceRecompute;
+    private volatile long threshold;
+
+    LatencyWindow(int capacity, double percentile) {
+      this.samples = new long[capacity];
+      this.percentile = percentile;
+    }
+
+    void add(long latencyNanos) {
+      lock.lock();
+      try {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        if (++sinceRecompute >= RECOMPUTE_EVERY || threshold == 0) {
+          long[] sorted = Arrays.copyOf(samples, size);
+          Arrays.sort(sorted);
+          threshold = sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(percentile * size) - 1))];
+          sinceRecompute = 0;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return size;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    long threshold() {
+      return threshold;
+    }
+  }
+}
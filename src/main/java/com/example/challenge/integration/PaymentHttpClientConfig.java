@@ -0,0 +1,81 @@
+package com.example.challenge.integration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.camel.component.http.HttpComponent;
+import org.apache.camel.spi.ComponentCustomizer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Um único pool de conexões (keep-alive, timeouts e despejo de ociosas) para os componentes
+ * http/https do Camel, em vez de um HttpClient padrão por endpoint. Métricas do pool em
+ * payment.http.pool.*.
+ */
+@Configuration
+public class PaymentHttpClientConfig {
+
+  @Bean(destroyMethod = "close")
+  public PoolingHttpClientConnectionManager paymentConnectionManager(PaymentProperties props) {
+    PaymentProperties.Http http = props.getHttp();
+    return PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(http.getMaxTotalConnections())
+        .setMaxConnPerRoute(http.getMaxConnectionsPerRoute())
+        .setDefaultConnectionConfig(ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+            .setSocketTimeout(Timeout.of(http.getResponseTimeout()))
+            .setTimeToLive(TimeValue.of(http.getConnectionTimeToLive()))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+            .build())
+        .build();
+  }
+
+  @Bean
+  public ComponentCustomizer paymentHttpComponentCustomizer(PaymentProperties props,
+      PoolingHttpClientConnectionManager connectionManager) {
+    PaymentProperties.Http http = props.getHttp();
+    TimeValue maxKeepAlive = TimeValue.of(http.getKeepAlive());
+    return ComponentCustomizer.forType(HttpComponent.class, component -> {
+      component.setClientConnectionManager(connectionManager);
+      component.setConnectTimeout(Timeout.of(http.getConnectTimeout()));
+      component.setResponseTimeout(Timeout.of(http.getResponseTimeout()));
+      component.setSoTimeout(Timeout.of(http.getResponseTimeout()));
+      component.setConnectionRequestTimeout(Timeout.of(http.getConnectionRequestTimeout()));
+      component.setHttpClientConfigurer(builder -> builder
+          .evictIdleConnections(TimeValue.of(http.getIdleEviction()))
+          .evictExpiredConnections()
+          // respeita o Keep-Alive do servidor, mas nunca além de payment.http.keep-alive
+          .setKeepAliveStrategy((response, context) -> {
+            TimeValue server = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(server) && server.compareTo(maxKeepAlive) < 0 ? server : maxKeepAlive;
+          }));
+    });
+  }
+
+  @Bean
+  public MeterBinder paymentConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+    return registry -> {
+      gauge(registry, connectionManager, "payment.http.pool.leased", PoolStats::getLeased);
+      gauge(registry, connectionManager, "payment.http.pool.available", PoolStats::getAvailable);
+      gauge(registry, connectionManager, "payment.http.pool.pending", PoolStats::getPending);
+      gauge(registry, connectionManager, "payment.http.pool.max", PoolStats::getMax);
+    };
+  }
+
+  private static void gauge(MeterRegistry registry,
+      PoolingHttpClientConnectionManager connectionManager, String name, ToDoubleFunction<PoolStats> stat) {
+    Gauge.builder(name, connectionManager, cm -> stat.applyAsDouble(cm.getTotalStats()))
+        .description("Conexões do pool HTTP de pagamento")
+        .register(registry);
+  }
+}
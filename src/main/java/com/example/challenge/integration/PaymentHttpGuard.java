@@ -0,0 +1,139 @@
+package com.example.challenge.integration;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.apache.camel.Exchange;
+import org.apache.camel.http.base.HttpOperationFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite adaptativo ({@link PaymentConcurrencyLimiter}) + circuit breaker + bulkhead (resilience4j)
+ * em volta da chamada HTTP de pagamento.
+ * A rota payment-http-route chama {@link #acquire} antes do toD e {@link #onSuccess}/{@link #onError}
+ * depois; cada redelivery passa de novo por aqui, então cada tentativa conta no breaker.
+ */
+@Component
+public class PaymentHttpGuard {
+
+  static final String STARTED_AT = "paymentHttpStartedAt";
+
+  private final CircuitBreaker circuitBreaker;
+  private final Bulkhead bulkhead;
+  private final PaymentConcurrencyLimiter limiter;
+
+  public PaymentHttpGuard(PaymentProperties props, PaymentConcurrencyLimiter limiter) {
+    this.limiter = limiter;
+    PaymentProperties.CircuitBreaker cb = props.getCircuitBreaker();
+    this.circuitBreaker = cb.isEnabled()
+        ? CircuitBreaker.of("payment", CircuitBreakerConfig.custom()
+            .failureRateThreshold(cb.getFailureRateThreshold())
+            .slidingWindowSize(cb.getSlidingWindowSize())
+            .minimumNumberOfCalls(cb.getMinimumNumberOfCalls())
+            .waitDurationInOpenState(cb.getWaitDurationInOpenState())
+            .permittedNumberOfCallsInHalfOpenState(cb.getPermittedCallsInHalfOpenState())
+            .build())
+        : null;
+
+    PaymentProperties.Bulkhead bh = props.getBulkhead();
+    this.bulkhead = bh.isEnabled()
+        ? Bulkhead.of("payment", BulkheadConfig.custom()
+            .maxConcurrentCalls(bh.getMaxConcurrentCalls())
+            .maxWaitDuration(bh.getMaxWait())
+            .build())
+        : null;
+  }
+
+  /**
+   * Lança PaymentLimitExceededException (limite adaptativo sem vaga depois de max-wait),
+   * CallNotPermittedException (circuito aberto) ou BulkheadFullException (sem vaga).
+   */
+  public void acquire(Exchange exchange) {
+    limiter.acquire();
+    if (bulkhead != null) {
+      try {
+        bulkhead.acquirePermission();
+      } catch (RuntimeException e) {
+        limiter.cancel();
+        throw e;
+      }
+    }
+    if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+      if (bulkhead != null) {
+        bulkhead.onComplete();
+      }
+      limiter.cancel();
+      throw CallNotPermittedException.createCallNotPermittedException(circuitBreaker);
+    }
+    exchange.setProperty(STARTED_AT, System.nanoTime());
+  }
+
+  /**
+   * Vaga no limite e no bulkhead para a segunda chamada de um hedge, sem esperar; false se não
+   * houver. Devolvida com {@link #releaseHedge}.
+   */
+  boolean tryAcquireHedge() {
+    if (!limiter.tryAcquire()) {
+      return false;
+    }
+    if (bulkhead != null && !bulkhead.tryAcquirePermission()) {
+      limiter.cancel();
+      return false;
+    }
+    return true;
+  }
+
+  void releaseHedge() {
+    release();
+    limiter.cancel();
+  }
+
+  public void onSuccess(Exchange exchange) {
+    long elapsed = elapsed(exchange);
+    if (circuitBreaker != null) {
+      circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+    }
+    limiter.release(elapsed, false);
+    release();
+  }
+
+  public void onError(Exchange exchange, Throwable error) {
+    long elapsed = elapsed(exchange);
+    if (circuitBreaker != null) {
+      circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, error);
+    }
+    limiter.release(elapsed, congested(error));
+    release();
+  }
+
+  public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+  public Bulkhead getBulkhead() { return bulkhead; }
+  public PaymentConcurrencyLimiter getLimiter() { return limiter; }
+
+  private void release() {
+    if (bulkhead != null) {
+      bulkhead.onComplete();
+    }
+  }
+
+  /**
+   * Sinal de congestionamento para o limite: sem resposta (timeout, conexão) ou o provedor pedindo
+   * para desacelerar. Outros status HTTP (o 500 da failure-url) são respostas normais.
+   */
+  private static boolean congested(Throwable error) {
+    if (error instanceof HttpOperationFailedException http) {
+      int status = http.getStatusCode();
+      return status == 429 || status == 503 || status == 504;
+    }
+    return true;
+  }
+
+  static long elapsed(Exchange exchange) {
+    Long startedAt = exchange.getProperty(STARTED_AT, Long.class);
+    return startedAt == null ? 0 : System.nanoTime() - startedAt;
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.challenge.integration;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Producer;
+import org.apache.camel.builder.ThreadPoolProfileBuilder;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.apache.camel.support.service.ServiceHelper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pistas de pagamento: o hash do orderId escolhe uma de payment.lanes.stripes filas de consumidor
+ * único, e a exchange segue para {@code uri} na thread da pista. Dois pagamentos do mesmo pedido
+ * nunca rodam ao mesmo tempo (o segundo espera o primeiro terminar, na ordem de chegada) e pedidos
+ * de pistas diferentes seguem em paralelo.
+ * <p>
+ * Quem entrega (consumidor SEDA, thread do split, agendador de retries) é liberado na hora, exceto
+ * quando a pista já tem payment.lanes.queue-size exchanges esperando: aí espera, e a pressão volta
+ * para a fila SEDA e o 503 do /pay.
+ */
+final class PaymentLanes extends AsyncProcessorSupport {
+
+  private final CamelContext context;
+  private final String uri;
+  private final ExecutorService[] lanes;
+  private final Semaphore[] slots;
+  private final AtomicInteger[] waiting;
+  private Producer producer;
+
+  PaymentLanes(CamelContext context, Object source, String uri, PaymentProperties.Lanes props) {
+    if (props.getStripes() < 1 || props.getQueueSize() < 1) {
+      throw new IllegalArgumentException("payment.lanes.stripes e payment.lanes.queue-size devem ser >= 1");
+    }
+    this.context = context;
+    this.uri = uri;
+    ThreadPoolProfile profile = new ThreadPoolProfileBuilder("payment-lane")
+        .poolSize(1).maxPoolSize(1).maxQueueSize(-1).build();
+    int stripes = props.getStripes();
+    this.lanes = new ExecutorService[stripes];
+    this.slots = new Semaphore[stripes];
+    this.waiting = new AtomicInteger[stripes];
+    for (int i = 0; i < stripes; i++) {
+      lanes[i] = context.getExecutorServiceManager().newThreadPool(source, "payment-lane-" + i, profile);
+      slots[i] = new Semaphore(props.getQueueSize(), true);
+      waiting[i] = new AtomicInteger();
+    }
+  }
+
+  static int lane(String orderId, int stripes) {
+    int h = orderId.hashCode();
+    return Math.floorMod(h ^ (h >>> 16), stripes);
+  }
+
+  int stripes() {
+    return lanes.length;
+  }
+
+  /** Exchanges esperando em todas as pistas, sem contar as que estão sendo processadas. */
+  int depth() {
+    int total = 0;
+    for (AtomicInteger w : waiting) {
+      total += w.get();
+    }
+    return total;
+  }
+
+  /** Exchanges esperando na pista mais cheia. */
+  int maxDepth() {
+    int max = 0;
+    for (AtomicInteger w : waiting) {
+      max = Math.max(max, w.get());
+    }
+    return max;
+  }
+
+  @Override
+  public boolean process(Exchange exchange, AsyncCallback callback) {
+    int lane = lane(exchange.getProperty("orderId", String.class), lanes.length);
+    try {
+      slots[lane].acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      exchange.setException(e);
+      callback.done(true);
+      return true;
+    }
+    waiting[lane].incrementAndGet();
+    try {
+      lanes[lane].execute(() -> {
+        waiting[lane].decrementAndGet();
+        slots[lane].release();
+        try {
+          // Síncrono: a pista só pega a próxima exchange quando esta terminar, redeliveries inclusive.
+          producer.process(exchange);
+        } catch (Exception e) {
+          exchange.setException(e);
+        }
+        callback.done(false);
+      });
+    } catch (RejectedExecutionException e) {
+      // Contexto parando: o pool da pista já foi desligado.
+      waiting[lane].decrementAndGet();
+      slots[lane].release();
+      exchange.setException(e);
+      callback.done(true);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  protected void doStart() throws Exception {
+    producer = context.getEndpoint(uri).createProducer();
+    ServiceHelper.startService(producer);
+  }
+
+  @Override
+  protected void doStop() throws Exception {
+    ServiceHelper.stopService(producer);
+  }
+}
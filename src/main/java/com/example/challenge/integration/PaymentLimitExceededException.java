@@ -0,0 +1,8 @@
+package com.example.challenge.integration;
+
+/** Sem vaga no limite adaptativo de chamadas ao provedor de pagamento. */
+public class PaymentLimitExceededException extends RuntimeException {
+  public PaymentLimitExceededException(String message) {
+    super(message);
+  }
+}
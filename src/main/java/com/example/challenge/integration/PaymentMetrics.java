@@ -0,0 +1,122 @@
+package com.example.challenge.integration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.camel.Exchange;
+import org.apache.camel.http.base.HttpOperationFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas do pipeline de pagamento. Tags só de baixa cardinalidade (outcome, status, strategy);
+ * orderId nunca vira tag.
+ * <ul>
+ * <li>payment.exchange: da entrada em direct:payOrder ao resultado, por outcome;</li>
+ * <li>payment.http.client: só a chamada HTTP, por outcome e classe de status (2xx, 5xx...);</li>
+ * <li>payment.outcomes: resultados por outcome; payment.retries: tentativas extras por strategy;</li>
+ * <li>payment.lanes e payment.lanes.depth: pistas por pedido e exchanges esperando nelas;</li>
+ * <li>payment.hedge.fired e payment.hedge.won: segundas chamadas disparadas e as que responderam primeiro.</li>
+ * </ul>
+ */
+@Component
+public class PaymentMetrics {
+
+  static final String STARTED_AT = "paymentStartedAt";
+
+  private final MeterRegistry registry;
+  private final Map<PaymentBatchResult.Outcome, Timer> exchangeTimers = new EnumMap<>(PaymentBatchResult.Outcome.class);
+  private final Map<PaymentBatchResult.Outcome, Counter> outcomes = new EnumMap<>(PaymentBatchResult.Outcome.class);
+  private final Map<PaymentProperties.RetryStrategy, Counter> retries = new EnumMap<>(PaymentProperties.RetryStrategy.class);
+  /** payment.http.client por "outcome status"; criados no primeiro uso de cada par. */
+  private final Map<String, Timer> httpTimers = new ConcurrentHashMap<>();
+  private final Counter hedgesFired;
+  private final Counter hedgesWon;
+
+  public PaymentMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.hedgesFired = Counter.builder("payment.hedge.fired")
+        .description("Segundas chamadas à success-url disparadas por demora da primeira").register(registry);
+    this.hedgesWon = Counter.builder("payment.hedge.won")
+        .description("Segundas chamadas que responderam antes da primeira").register(registry);
+    for (PaymentBatchResult.Outcome outcome : PaymentBatchResult.Outcome.values()) {
+      exchangeTimers.put(outcome, Timer.builder("payment.exchange")
+          .description("Pagamento de ponta a ponta na rota payment-route")
+          .tag("outcome", outcome.name())
+          .publishPercentileHistogram()
+          .register(registry));
+      outcomes.put(outcome, Counter.builder("payment.outcomes").tag("outcome", outcome.name()).register(registry));
+    }
+    for (PaymentProperties.RetryStrategy strategy : PaymentProperties.RetryStrategy.values()) {
+      retries.put(strategy, Counter.builder("payment.retries")
+          .description("Tentativas de pagamento além da primeira")
+          .tag("strategy", strategy.name().toLowerCase())
+          .register(registry));
+    }
+  }
+
+  public void started(Exchange exchange) {
+    exchange.setProperty(STARTED_AT, System.nanoTime());
+  }
+
+  public void completed(Exchange exchange, PaymentBatchResult.Outcome outcome) {
+    outcomes.get(outcome).increment();
+    Long startedAt = exchange.getProperty(STARTED_AT, Long.class);
+    if (startedAt != null) {
+      exchangeTimers.get(outcome).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public void retry(PaymentProperties.RetryStrategy strategy) {
+    retries.get(strategy).increment();
+  }
+
+  void hedgeFired() {
+    hedgesFired.increment();
+  }
+
+  void hedgeWon() {
+    hedgesWon.increment();
+  }
+
+  /** payment.lanes: quantidade de pistas; payment.lanes.depth: exchanges esperando (total e na pista mais cheia). */
+  void lanes(PaymentLanes lanes) {
+    Gauge.builder("payment.lanes", lanes, PaymentLanes::stripes).register(registry);
+    Gauge.builder("payment.lanes.depth", lanes, PaymentLanes::depth).tag("stat", "total").register(registry);
+    Gauge.builder("payment.lanes.depth", lanes, PaymentLanes::maxDepth).tag("stat", "max").register(registry);
+  }
+
+  /** Registra a chamada HTTP medida pelo {@link PaymentHttpGuard}; {@code error} null = sucesso. */
+  public void httpCall(Exchange exchange, Throwable error) {
+    String outcome;
+    String status;
+    if (error == null) {
+      outcome = "success";
+      status = statusClass(exchange.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, 200, Integer.class));
+    } else if (error instanceof HttpOperationFailedException http) {
+      outcome = "http_error";
+      status = statusClass(http.getStatusCode());
+    } else {
+      outcome = "error";
+      status = "none";
+    }
+    httpTimer(outcome, status).record(PaymentHttpGuard.elapsed(exchange), TimeUnit.NANOSECONDS);
+  }
+
+  private Timer httpTimer(String outcome, String status) {
+    return httpTimers.computeIfAbsent(outcome + " " + status, key -> Timer.builder("payment.http.client")
+        .description("Chamada HTTP ao provedor de pagamento")
+        .tags("outcome", outcome, "status", status)
+        .publishPercentileHistogram()
+        .register(registry));
+  }
+
+  private static String statusClass(int code) {
+    return (code / 100) + "xx";
+  }
+}
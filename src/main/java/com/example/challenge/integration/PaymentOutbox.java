@@ -0,0 +1,104 @@
+package com.example.challenge.integration;
+
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.domain.OutboxStatus;
+import com.example.challenge.domain.PaymentOutboxEntry;
+import com.example.challenge.repo.OrderRepository;
+import com.example.challenge.repo.PaymentOutboxRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbox de pagamentos (payment.dispatch.mode=outbox): o /pay grava a intenção na mesma transação
+ * que confere o status do pedido e a rota payment-outbox-route reivindica lotes, paga e fecha.
+ */
+@Component
+public class PaymentOutbox {
+
+  private static final Logger log = LoggerFactory.getLogger(PaymentOutbox.class);
+
+  private final PaymentOutboxRepository repo;
+  private final OrderRepository orders;
+  private final PaymentProperties props;
+
+  public PaymentOutbox(PaymentOutboxRepository repo, OrderRepository orders, PaymentProperties props) {
+    this.repo = repo;
+    this.orders = orders;
+    this.props = props;
+  }
+
+  /**
+   * Grava a intenção se o pedido ainda está NEW; um pedido com intenção aberta não ganha outra. A
+   * linha do pedido fica travada até o commit, então dois /pay simultâneos não passam os dois pela
+   * checagem.
+   */
+  @Transactional
+  public PaymentOutboxEntry enqueue(String orderId, long amount) {
+    OrderStatus status = orders.lockStatusById(orderId)
+        .orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + orderId));
+    if (status != OrderStatus.NEW) {
+      throw new IllegalStateException("Pagamento permitido apenas para pedidos NEW");
+    }
+    if (repo.existsByOrderIdAndStatusIn(orderId, EnumSet.of(OutboxStatus.PENDING, OutboxStatus.CLAIMED))) {
+      throw new PaymentAlreadyRequestedException("Pagamento já solicitado para o pedido " + orderId);
+    }
+    return repo.save(new PaymentOutboxEntry(orderId, amount, Instant.now()));
+  }
+
+  /** Reivindica até payment.outbox.batch-size intenções disponíveis (ou com claim vencido). */
+  @Transactional
+  public List<PaymentOutboxEntry> claim() {
+    PaymentProperties.Outbox outbox = props.getOutbox();
+    Instant now = Instant.now();
+    List<PaymentOutboxEntry> entries = repo.findClaimable(now, now.minus(outbox.getClaimTimeout()),
+        outbox.getBatchSize());
+    if (!entries.isEmpty()) {
+      repo.markClaimed(entries.stream().map(PaymentOutboxEntry::getId).toList(), now);
+    }
+    return entries;
+  }
+
+  /**
+   * Fecha o lote conforme o resultado de cada pedido: PAID/FAILED/SKIPPED viram DONE, assim como
+   * RETRY_SCHEDULED (a próxima tentativa já está persistida em payment_retries); DEFERRED
+   * volta após o tempo de circuito aberto sem gastar tentativa; ERROR volta após poll-interval
+   * ou vira DEAD ao atingir max-attempts.
+   */
+  @Transactional
+  public void complete(List<PaymentOutboxEntry> claimed, PaymentBatchResult result) {
+    Map<String, PaymentBatchResult.Outcome> outcomes = new HashMap<>();
+    result.getResults().forEach(e -> outcomes.put(e.getOrderId(), e.getOutcome()));
+
+    Map<PaymentBatchResult.Outcome, List<Long>> byOutcome = new HashMap<>();
+    for (PaymentOutboxEntry entry : claimed) {
+      PaymentBatchResult.Outcome outcome = outcomes.getOrDefault(entry.getOrderId(), PaymentBatchResult.Outcome.ERROR);
+      byOutcome.computeIfAbsent(outcome, o -> new ArrayList<>()).add(entry.getId());
+    }
+
+    Instant now = Instant.now();
+    byOutcome.forEach((outcome, ids) -> {
+      switch (outcome) {
+        case PAID, FAILED, SKIPPED, RETRY_SCHEDULED -> repo.markDone(ids, outcome.name(), now);
+        case DEFERRED -> repo.reschedule(ids, outcome.name(),
+            now.plus(props.getCircuitBreaker().getWaitDurationInOpenState()), 1);
+        case ERROR -> {
+          int dead = repo.markDead(ids, outcome.name(), props.getOutbox().getMaxAttempts(), now);
+          if (dead > 0) {
+            log.error("💀 {} intenções de pagamento esgotaram {} tentativas", dead, props.getOutbox().getMaxAttempts());
+          }
+          repo.reschedule(ids, outcome.name(), now.plus(props.getOutbox().getPollInterval()), 0);
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.challenge.integration;
+
+import com.example.challenge.domain.PaymentOutboxEntry;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Poller do outbox de pagamentos. Cada ciclo reivindica um lote, paga os pedidos em paralelo pela
+ * rota direct:payOrder e fecha as intenções conforme o resultado. Só inicia com
+ * payment.dispatch.mode=outbox; com backlog repete na hora (greedy), ocioso espera poll-interval.
+ */
+@Component
+public class PaymentOutboxRoute extends RouteBuilder {
+  static final String CLAIMED_PROPERTY = "outboxClaimed";
+
+  /** Lote reivindicado, guardado tipado na exchange enquanto o split troca o body. */
+  private record Claimed(List<PaymentOutboxEntry> entries) {
+  }
+
+  private final PaymentProperties props;
+  private final PaymentOutbox outbox;
+
+  public PaymentOutboxRoute(PaymentProperties props, PaymentOutbox outbox) {
+    this.props = props;
+    this.outbox = outbox;
+  }
+
+  @Override
+  public void configure() throws Exception {
+    PaymentProperties.Outbox config = props.getOutbox();
+    long pollMs = config.getPollInterval().toMillis();
+
+    from("scheduler:payment-outbox?greedy=true&delay=" + pollMs + "&initialDelay=" + pollMs)
+        .routeId("payment-outbox-route")
+        .autoStartup(props.getDispatch().getMode() == PaymentProperties.DispatchMode.OUTBOX)
+        .process(exchange -> {
+          List<PaymentOutboxEntry> claimed = outbox.claim();
+          exchange.setProperty(CLAIMED_PROPERTY, new Claimed(claimed));
+          exchange.setProperty(Exchange.SCHEDULER_POLLED_MESSAGES, !claimed.isEmpty());
+          exchange.getIn().setBody(claimed);
+        })
+        .filter(exchangeProperty(Exchange.SCHEDULER_POLLED_MESSAGES))
+            .log("📤 Outbox: ${body.size()} intenções de pagamento reivindicadas")
+            .split(body(), new PaymentBatchAggregationStrategy())
+                .parallelProcessing()
+                .executorService(getContext().getExecutorServiceManager()
+                    .newFixedThreadPool(this, "payment-outbox", config.getParallelism()))
+                .process(exchange -> {
+                  PaymentOutboxEntry entry = exchange.getIn().getBody(PaymentOutboxEntry.class);
+                  exchange.setProperty("orderId", entry.getOrderId());
+                  exchange.getIn().setHeader("orderId", entry.getOrderId());
+                  exchange.getIn().setHeader("amount", entry.getAmount());
+                  exchange.getIn().setBody(null);
+                })
+                .to(PaymentRoute.DIRECT_PAY)
+            .end()
+            .process(exchange -> outbox.complete(exchange.getProperty(CLAIMED_PROPERTY, Claimed.class).entries(),
+                exchange.getIn().getBody(PaymentBatchResult.class)))
+            .log("📤 Outbox: lote fechado: paid=${body.paid}, failed=${body.failed}, deferred=${body.deferred}, errors=${body.errors}")
+        .end();
+  }
+}
@@ -3,23 +3,275 @@ package com.example.challenge.integration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "payment")
 public class PaymentProperties {
   private String successUrl;
   private String failureUrl;
   private Retry retry = new Retry();
+  private Dispatch dispatch = new Dispatch();
+  private Batch batch = new Batch();
+  private CircuitBreaker circuitBreaker = new CircuitBreaker();
+  private Bulkhead bulkhead = new Bulkhead();
+  private Http http = new Http();
+  private Outbox outbox = new Outbox();
+  private Lanes lanes = new Lanes();
+  private Limiter limiter = new Limiter();
+  private Hedge hedge = new Hedge();
+
+  public enum DispatchMode { BLOCKING, ASYNC, OUTBOX }
+
+  public enum OpenAction { FAIL, DEFER }
 
+  public enum RetryStrategy { PERSISTENT, IN_THREAD }
+
+  /**
+   * Retry de falhas HTTP com atraso redelivery-delay-ms × backoff-multiplier^(n-1). PERSISTENT grava
+   * a próxima tentativa em payment_retries e libera a exchange; o agendador mantém em memória só o
+   * que vence dentro de horizon (até max-in-memory). IN_THREAD é o redelivery do Camel, segurando
+   * a exchange durante o backoff.
+   */
   public static class Retry {
     private int maxRedeliveries = 3;
     private long redeliveryDelayMs = 200;
     private double backoffMultiplier = 2.0;
+    private RetryStrategy strategy = RetryStrategy.PERSISTENT;
+    private Duration horizon = Duration.ofMinutes(1);
+    private int maxInMemory = 10000;
+    private Duration lease = Duration.ofMinutes(5);
     public int getMaxRedeliveries() { return maxRedeliveries; }
     public void setMaxRedeliveries(int v) { this.maxRedeliveries = v; }
     public long getRedeliveryDelayMs() { return redeliveryDelayMs; }
     public void setRedeliveryDelayMs(long v) { this.redeliveryDelayMs = v; }
     public double getBackoffMultiplier() { return backoffMultiplier; }
     public void setBackoffMultiplier(double v) { this.backoffMultiplier = v; }
+    public RetryStrategy getStrategy() { return strategy; }
+    public void setStrategy(RetryStrategy v) { this.strategy = v; }
+    public Duration getHorizon() { return horizon; }
+    public void setHorizon(Duration v) { this.horizon = v; }
+    public int getMaxInMemory() { return maxInMemory; }
+    public void setMaxInMemory(int v) { this.maxInMemory = v; }
+    public Duration getLease() { return lease; }
+    public void setLease(Duration v) { this.lease = v; }
+
+    /** Atraso antes da tentativa {@code attempt} (a 1ª é a chamada original, sem atraso). */
+    public Duration delayBefore(int attempt) {
+      return Duration.ofMillis((long) (redeliveryDelayMs * Math.pow(backoffMultiplier, Math.max(0, attempt - 2))));
+    }
+  }
+
+  /**
+   * Como o /pay entrega a exchange para a rota: BLOCKING executa direct:payOrder na thread
+   * do request (comportamento antigo); ASYNC enfileira numa SEDA limitada e retorna 202 na hora;
+   * OUTBOX grava a intenção em payment_outbox e um poller paga em lotes (sobrevive a restart).
+   */
+  public static class Dispatch {
+    private DispatchMode mode = DispatchMode.ASYNC;
+    private int concurrentConsumers = 4;
+    private int queueSize = 1000;
+    private int maxTrackedAttempts = 10000;
+    public DispatchMode getMode() { return mode; }
+    public void setMode(DispatchMode v) { this.mode = v; }
+    public int getConcurrentConsumers() { return concurrentConsumers; }
+    public void setConcurrentConsumers(int v) { this.concurrentConsumers = v; }
+    public int getQueueSize() { return queueSize; }
+    public void setQueueSize(int v) { this.queueSize = v; }
+    public int getMaxTrackedAttempts() { return maxTrackedAttempts; }
+    public void setMaxTrackedAttempts(int v) { this.maxTrackedAttempts = v; }
+  }
+
+  /**
+   * Poller do outbox: até batch-size intenções por claim, pagas com parallelism threads. Sem
+   * intenções disponíveis espera poll-interval; claims mais velhos que claim-timeout (JVM caiu
+   * no meio do lote) são reivindicados de novo.
+   */
+  public static class Outbox {
+    private int batchSize = 50;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private int parallelism = 8;
+    private Duration claimTimeout = Duration.ofMinutes(5);
+    private int maxAttempts = 5;
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int v) { this.batchSize = v; }
+    public Duration getPollInterval() { return pollInterval; }
+    public void setPollInterval(Duration v) { this.pollInterval = v; }
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int v) { this.parallelism = v; }
+    public Duration getClaimTimeout() { return claimTimeout; }
+    public void setClaimTimeout(Duration v) { this.claimTimeout = v; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int v) { this.maxAttempts = v; }
+  }
+
+  /**
+   * Pistas por pedido: o orderId escolhe uma de stripes filas de consumidor único, então no máximo
+   * um pagamento do mesmo pedido roda por vez. queue-size limita as exchanges esperando em cada
+   * pista; com ela cheia quem entrega (consumidor SEDA, split, agendador) espera.
+   */
+  public static class Lanes {
+    private int stripes = 16;
+    private int queueSize = 64;
+    public int getStripes() { return stripes; }
+    public void setStripes(int v) { this.stripes = v; }
+    public int getQueueSize() { return queueSize; }
+    public void setQueueSize(int v) { this.queueSize = v; }
+  }
+
+  /**
+   * Limite adaptativo (AIMD) de chamadas HTTP simultâneas ao provedor, abaixo do teto fixo do
+   * bulkhead. Começa em initial-limit; cada resposta com latência até baseline × latency-tolerance +
+   * latency-slack (baseline = menor latência das últimas duas janelas de baseline-window) soma
+   * 1/limite, e latência inflada, timeout ou 429/503/504 multiplica por backoff-ratio (no máximo
+   * uma vez por latência medida). Sem vaga a chamada espera até max-wait na thread da pista, o que
+   * segura os pedidos atrás dela, por isso a espera é curta; sem vaga ao fim dela o pagamento é
+   * adiado (DEFERRED ou nova tentativa agendada). Com max-queue pagamentos parados antes do
+   * provedor (fila SEDA, pistas e chamadas esperando vaga) o /pay responde 429.
+   */
+  public static class Limiter {
+    private boolean enabled = true;
+    private int initialLimit = 10;
+    private int minLimit = 1;
+    private int maxLimit = 20;
+    private double backoffRatio = 0.9;
+    private double latencyTolerance = 2.0;
+    private Duration latencySlack = Duration.ofMillis(10);
+    private Duration baselineWindow = Duration.ofSeconds(30);
+    private Duration maxWait = Duration.ofMillis(200);
+    private int maxQueue = 500;
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean v) { this.enabled = v; }
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int v) { this.initialLimit = v; }
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int v) { this.minLimit = v; }
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int v) { this.maxLimit = v; }
+    public double getBackoffRatio() { return backoffRatio; }
+    public void setBackoffRatio(double v) { this.backoffRatio = v; }
+    public double getLatencyTolerance() { return latencyTolerance; }
+    public void setLatencyTolerance(double v) { this.latencyTolerance = v; }
+    public Duration getLatencySlack() { return latencySlack; }
+    public void setLatencySlack(Duration v) { this.latencySlack = v; }
+    public Duration getBaselineWindow() { return baselineWindow; }
+    public void setBaselineWindow(Duration v) { this.baselineWindow = v; }
+    public Duration getMaxWait() { return maxWait; }
+    public void setMaxWait(Duration v) { this.maxWait = v; }
+    public int getMaxQueue() { return maxQueue; }
+    public void setMaxQueue(int v) { this.maxQueue = v; }
+  }
+
+  /**
+   * Hedging da chamada à success-url (GET, idempotente): se a primeira chamada não respondeu em
+   * percentile da latência das últimas window chamadas (mínimo min-delay, só depois de min-samples),
+   * uma segunda é disparada e vale a que responder primeiro. Cada chamada rende max-ratio de
+   * crédito (até burst) e cada hedge gasta 1, então os hedges não passam de ~max-ratio da carga.
+   */
+  public static class Hedge {
+    private boolean enabled = false;
+    private double percentile = 0.95;
+    private int window = 1000;
+    private int minSamples = 100;
+    private Duration minDelay = Duration.ofMillis(20);
+    private double maxRatio = 0.1;
+    private int burst = 10;
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean v) { this.enabled = v; }
+    public double getPercentile() { return percentile; }
+    public void setPercentile(double v) { this.percentile = v; }
+    public int getWindow() { return window; }
+    public void setWindow(int v) { this.window = v; }
+    public int getMinSamples() { return minSamples; }
+    public void setMinSamples(int v) { this.minSamples = v; }
+    public Duration getMinDelay() { return minDelay; }
+    public void setMinDelay(Duration v) { this.minDelay = v; }
+    public double getMaxRatio() { return maxRatio; }
+    public void setMaxRatio(double v) { this.maxRatio = v; }
+    public int getBurst() { return burst; }
+    public void setBurst(int v) { this.burst = v; }
+  }
+
+  /** Limites do POST /api/orders/pay-batch: threads do split paralelo e pedidos por lote. */
+  public static class Batch {
+    private int parallelism = 8;
+    private int maxSize = 5000;
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int v) { this.parallelism = v; }
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int v) { this.maxSize = v; }
+  }
+
+  /**
+   * Circuit breaker da chamada HTTP. Com o circuito aberto o pagamento não chega ao provedor:
+   * FAIL marca FAILED_PAYMENT na hora, DEFER deixa o pedido NEW para uma nova tentativa.
+   */
+  public static class CircuitBreaker {
+    private boolean enabled = true;
+    private float failureRateThreshold = 50;
+    private int slidingWindowSize = 20;
+    private int minimumNumberOfCalls = 10;
+    private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+    private int permittedCallsInHalfOpenState = 3;
+    private OpenAction openAction = OpenAction.FAIL;
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean v) { this.enabled = v; }
+    public float getFailureRateThreshold() { return failureRateThreshold; }
+    public void setFailureRateThreshold(float v) { this.failureRateThreshold = v; }
+    public int getSlidingWindowSize() { return slidingWindowSize; }
+    public void setSlidingWindowSize(int v) { this.slidingWindowSize = v; }
+    public int getMinimumNumberOfCalls() { return minimumNumberOfCalls; }
+    public void setMinimumNumberOfCalls(int v) { this.minimumNumberOfCalls = v; }
+    public Duration getWaitDurationInOpenState() { return waitDurationInOpenState; }
+    public void setWaitDurationInOpenState(Duration v) { this.waitDurationInOpenState = v; }
+    public int getPermittedCallsInHalfOpenState() { return permittedCallsInHalfOpenState; }
+    public void setPermittedCallsInHalfOpenState(int v) { this.permittedCallsInHalfOpenState = v; }
+    public OpenAction getOpenAction() { return openAction; }
+    public void setOpenAction(OpenAction v) { this.openAction = v; }
+  }
+
+  /** Bulkhead: máximo de chamadas HTTP de pagamento simultâneas. */
+  public static class Bulkhead {
+    private boolean enabled = true;
+    private int maxConcurrentCalls = 20;
+    private Duration maxWait = Duration.ZERO;
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean v) { this.enabled = v; }
+    public int getMaxConcurrentCalls() { return maxConcurrentCalls; }
+    public void setMaxConcurrentCalls(int v) { this.maxConcurrentCalls = v; }
+    public Duration getMaxWait() { return maxWait; }
+    public void setMaxWait(Duration v) { this.maxWait = v; }
+  }
+
+  /** Pool de conexões compartilhado pelos componentes http/https da rota de pagamento. */
+  public static class Http {
+    private int maxTotalConnections = 200;
+    private int maxConnectionsPerRoute = 50;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    private Duration keepAlive = Duration.ofSeconds(60);
+    private Duration idleEviction = Duration.ofSeconds(30);
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+    private int endpointCacheSize = 16;
+    public int getMaxTotalConnections() { return maxTotalConnections; }
+    public void setMaxTotalConnections(int v) { this.maxTotalConnections = v; }
+    public int getMaxConnectionsPerRoute() { return maxConnectionsPerRoute; }
+    public void setMaxConnectionsPerRoute(int v) { this.maxConnectionsPerRoute = v; }
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration v) { this.connectTimeout = v; }
+    public Duration getResponseTimeout() { return responseTimeout; }
+    public void setResponseTimeout(Duration v) { this.responseTimeout = v; }
+    public Duration getConnectionRequestTimeout() { return connectionRequestTimeout; }
+    public void setConnectionRequestTimeout(Duration v) { this.connectionRequestTimeout = v; }
+    public Duration getKeepAlive() { return keepAlive; }
+    public void setKeepAlive(Duration v) { this.keepAlive = v; }
+    public Duration getIdleEviction() { return idleEviction; }
+    public void setIdleEviction(Duration v) { this.idleEviction = v; }
+    public Duration getConnectionTimeToLive() { return connectionTimeToLive; }
+    public void setConnectionTimeToLive(Duration v) { this.connectionTimeToLive = v; }
+    public int getEndpointCacheSize() { return endpointCacheSize; }
+    public void setEndpointCacheSize(int v) { this.endpointCacheSize = v; }
   }
 
   public String getSuccessUrl() { return successUrl; }
@@ -28,4 +280,22 @@ public class PaymentProperties {
   public void setFailureUrl(String failureUrl) { this.failureUrl = failureUrl; }
   public Retry getRetry() { return retry; }
   public void setRetry(Retry retry) { this.retry = retry; }
+  public Dispatch getDispatch() { return dispatch; }
+  public void setDispatch(Dispatch dispatch) { this.dispatch = dispatch; }
+  public Batch getBatch() { return batch; }
+  public void setBatch(Batch batch) { this.batch = batch; }
+  public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+  public void setCircuitBreaker(CircuitBreaker circuitBreaker) { this.circuitBreaker = circuitBreaker; }
+  public Bulkhead getBulkhead() { return bulkhead; }
+  public void setBulkhead(Bulkhead bulkhead) { this.bulkhead = bulkhead; }
+  public Http getHttp() { return http; }
+  public void setHttp(Http http) { this.http = http; }
+  public Outbox getOutbox() { return outbox; }
+  public void setOutbox(Outbox outbox) { this.outbox = outbox; }
+  public Lanes getLanes() { return lanes; }
+  public void setLanes(Lanes lanes) { this.lanes = lanes; }
+  public Limiter getLimiter() { return limiter; }
+  public void setLimiter(Limiter limiter) { this.limiter = limiter; }
+  public Hedge getHedge() { return hedge; }
+  public void setHedge(Hedge hedge) { this.hedge = hedge; }
 }
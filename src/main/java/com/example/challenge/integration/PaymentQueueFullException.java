@@ -0,0 +1,7 @@
+package com.example.challenge.integration;
+
+public class PaymentQueueFullException extends RuntimeException {
+  public PaymentQueueFullException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,211 @@
+package com.example.challenge.integration;
+
+import com.example.challenge.domain.PaymentRetry;
+import com.example.challenge.repo.PaymentRetryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agendador das tentativas persistidas em payment_retries (payment.retry.strategy=persistent).
+ * Uma única thread dorme até a próxima tentativa vencer e a envia para a SEDA de pagamento.
+ * Em memória fica só uma janela de payment.retry.horizon (no máximo max-in-memory entradas),
+ * recarregada do banco a cada meia janela e no startup; o resto espera no H2.
+ * <p>
+ * Disparar não apaga a linha: ela fica reservada por payment.retry.lease e só sai quando a
+ * payment-route chega a um resultado final ({@link #completed}). Se o processo cair com a
+ * tentativa ainda na SEDA, ela vence de novo no fim da reserva.
+ */
+@Component
+public class PaymentRetryScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(PaymentRetryScheduler.class);
+
+  private record Due(long id, String orderId, long amount, int attempt, Instant dueAt) {
+    static Due of(PaymentRetry r) {
+      return new Due(r.getId(), r.getOrderId(), r.getAmount(), r.getAttempt(), r.getDueAt());
+    }
+  }
+
+  private final PaymentRetryRepository repo;
+  private final ProducerTemplate template;
+  private final PaymentProperties.Retry props;
+  private final TransactionTemplate tx;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparing(Due::dueAt));
+  private final Set<Long> queued = new HashSet<>();
+  private Instant loadedUntil = Instant.MIN;
+  private Instant nextRefill = Instant.MIN;
+
+  private volatile Thread timer;
+
+  public PaymentRetryScheduler(PaymentRetryRepository repo, ProducerTemplate template, PaymentProperties props,
+      PlatformTransactionManager transactionManager, MeterRegistry registry) {
+    this.repo = repo;
+    this.template = template;
+    this.props = props.getRetry();
+    this.tx = new TransactionTemplate(transactionManager);
+    Gauge.builder("payment.retry.window", this, PaymentRetryScheduler::inMemory).register(registry);
+  }
+
+  /** Persiste a tentativa {@code attempt} do pedido para daqui a {@code delay}, no lugar da anterior. */
+  public void schedule(String orderId, long amount, int attempt, Duration delay) {
+    PaymentRetry saved = tx.execute(status -> {
+      repo.deleteByOrderId(orderId);
+      return repo.save(new PaymentRetry(orderId, amount, attempt, Instant.now().plus(delay)));
+    });
+    lock.lock();
+    try {
+      if (!saved.getDueAt().isAfter(loadedUntil) && queue.size() < props.getMaxInMemory()) {
+        offer(Due.of(saved));
+        changed.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** A tentativa disparada para o pedido chegou a PAID, FAILED ou SKIPPED: a linha pode sair. */
+  public void completed(String orderId) {
+    repo.deleteByOrderId(orderId);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (timer != null) {
+      return;
+    }
+    timer = new Thread(this::run, "payment-retry-timer");
+    timer.setDaemon(true);
+    timer.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    Thread t = timer;
+    timer = null;
+    if (t != null) {
+      t.interrupt();
+      t.join(TimeUnit.SECONDS.toMillis(5));
+    }
+  }
+
+  int inMemory() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void run() {
+    while (timer == Thread.currentThread()) {
+      try {
+        Due due = awaitNext();
+        if (due != null) {
+          fire(due);
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        log.error("Falha no agendador de retries de pagamento", e);
+        sleepQuietly(props.getRedeliveryDelayMs());
+      }
+    }
+  }
+
+  /** Devolve a próxima tentativa vencida, ou null quando é hora de recarregar a janela. */
+  private Due awaitNext() throws InterruptedException {
+    lock.lock();
+    try {
+      Instant now = Instant.now();
+      if (!now.isBefore(nextRefill)) {
+        lock.unlock();
+        try {
+          refill(now);
+        } finally {
+          lock.lock();
+        }
+        return null;
+      }
+      Due head = queue.peek();
+      if (head != null && !head.dueAt().isAfter(now)) {
+        queue.poll();
+        queued.remove(head.id());
+        return head;
+      }
+      Instant wakeAt = head == null || head.dueAt().isAfter(nextRefill) ? nextRefill : head.dueAt();
+      changed.awaitNanos(Math.max(1, Duration.between(now, wakeAt).toNanos()));
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void refill(Instant now) {
+    Instant until = now.plus(props.getHorizon());
+    List<PaymentRetry> window = repo.findDueBefore(until, Limit.of(props.getMaxInMemory()));
+    lock.lock();
+    try {
+      window.forEach(r -> offer(Due.of(r)));
+      // Janela truncada: só vale até a última entrada carregada; o resto entra no próximo refill.
+      loadedUntil = window.size() >= props.getMaxInMemory() ? window.get(window.size() - 1).getDueAt() : until;
+      nextRefill = now.plus(props.getHorizon().dividedBy(2));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void offer(Due due) {
+    if (queued.add(due.id())) {
+      queue.add(due);
+    }
+  }
+
+  private void fire(Due due) {
+    Instant now = Instant.now();
+    if (repo.claim(due.id(), now, now.plus(props.getLease())) == 0) {
+      return;
+    }
+    try {
+      template.sendBodyAndHeaders(PaymentRoute.SEDA_PAY, null, Map.of("orderId", due.orderId(), "amount",
+          due.amount(), PaymentRoute.ATTEMPT_HEADER, due.attempt()));
+    } catch (RuntimeException e) {
+      log.warn("Tentativa {} do pedido {} não entrou na fila; reagendada: {}", due.attempt(), due.orderId(),
+          e.getMessage());
+      schedule(due.orderId(), due.amount(), due.attempt(), Duration.ofMillis(props.getRedeliveryDelayMs()));
+    }
+  }
+
+  private static void sleepQuietly(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -5,86 +5,294 @@ import org.apache.camel.http.base.HttpOperationFailedException;
 import org.apache.camel.Exchange;
 import org.springframework.stereotype.Component;
 
+import com.example.challenge.domain.Money;
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderStatus;
 import com.example.challenge.service.OrderService;
 
 import org.apache.camel.LoggingLevel;
+import org.apache.camel.component.seda.SedaEndpoint;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 
 /**
- * TODO: Implementar a rota do pagamento:
- * - from("direct:payOrder") com headers orderId e amount
- * - if amount > 1000 -> chamar failureUrl, else -> successUrl
- * - onException(HttpOperationFailedException) com retries/backoff das props
- * - chamar endpoints/beans para marcar PAID/FAILED no serviço
+ * Rotas do pagamento (headers orderId e amount em centavos):
+ * <ul>
+ * <li>seda:payOrderAsync (o /pay em ASYNC) e direct:payBatch (split paralelo) entregam em
+ * direct:payOrder;</li>
+ * <li>direct:payOrder põe a exchange na pista do pedido ({@link PaymentLanes}), que segue para
+ * direct:payOrderLane: confere o status e escolhe failure-url acima de {@link #FAILURE_THRESHOLD},
+ * success-url abaixo;</li>
+ * <li>direct:payOrderHttp passa pelo {@link PaymentHttpGuard} (limite adaptativo, bulkhead,
+ * circuit breaker) e pelo {@link PaymentHedger}, que chama o provedor em direct:payOrderHttpCall;</li>
+ * <li>sucesso marca PAID; erros caem nos onException (redelivery ou payment_retries, FAILED ou adiado).</li>
+ * </ul>
  */
 @Component
 public class PaymentRoute extends RouteBuilder {
   public static final String DIRECT_PAY = "direct:payOrder";
+  public static final String SEDA_PAY = "seda:payOrderAsync";
+  public static final String DIRECT_PAY_BATCH = "direct:payBatch";
+  public static final String DIRECT_PAY_HTTP = "direct:payOrderHttp";
+  public static final String DIRECT_PAY_LANE = "direct:payOrderLane";
+  public static final String DIRECT_PAY_HTTP_CALL = "direct:payOrderHttpCall";
+  public static final String OUTCOME_PROPERTY = "paymentOutcome";
+  /** Número da tentativa (1 = chamada original), presente nas tentativas disparadas pelo agendador. */
+  public static final String ATTEMPT_HEADER = "paymentAttempt";
+  /** Acima deste valor (em centavos) o pagamento vai para a failure-url. */
+  public static final long FAILURE_THRESHOLD = Money.ofUnits(1000);
 
   private final PaymentProperties props;
   
   private final OrderService orderService;
 
-  public PaymentRoute(PaymentProperties props, OrderService orderService) {
+  private final PaymentAttempts attempts;
+
+  private final PaymentHttpGuard guard;
+
+  private final PaymentRetryScheduler retries;
+
+  private final PaymentMetrics metrics;
+
+  public PaymentRoute(PaymentProperties props, OrderService orderService, PaymentAttempts attempts,
+      PaymentHttpGuard guard, PaymentRetryScheduler retries, PaymentMetrics metrics) {
     this.props = props;
     this.orderService = orderService;
+    this.attempts = attempts;
+    this.guard = guard;
+    this.retries = retries;
+    this.metrics = metrics;
   }
 
   @Override
   public void configure() throws Exception {
 	  
 	  
-	  onException(HttpOperationFailedException.class)
-      .maximumRedeliveries(props.getRetry().getMaxRedeliveries())
+	  // IN_THREAD: redelivery do Camel segurando a exchange. PERSISTENT: sem redelivery aqui; a próxima
+	  // tentativa vai para payment_retries e o PaymentRetryScheduler a reenvia quando vencer.
+	  boolean persistentRetry = props.getRetry().getStrategy() == PaymentProperties.RetryStrategy.PERSISTENT;
+
+	  // Status de erro do provedor ou sem resposta (timeout de conexão/leitura, conexão recusada): mesma decisão.
+	  onException(HttpOperationFailedException.class, IOException.class)
+      .maximumRedeliveries(persistentRetry ? 0 : props.getRetry().getMaxRedeliveries())
       .redeliveryDelay(props.getRetry().getRedeliveryDelayMs())
       .useExponentialBackOff()
       .backOffMultiplier(props.getRetry().getBackoffMultiplier())
       .retryAttemptedLogLevel(LoggingLevel.WARN)
+      .onRedelivery(exchange -> metrics.retry(PaymentProperties.RetryStrategy.IN_THREAD))
       .useOriginalMessage() 
       .handled(true)
       .process(exchange -> {
     	  String orderId = exchange.getProperty("orderId", String.class);
+          int attempt = exchange.getIn().getHeader(ATTEMPT_HEADER, 1, Integer.class);
+          if (persistentRetry && orderId != null && attempt <= props.getRetry().getMaxRedeliveries()) {
+              Duration delay = props.getRetry().delayBefore(attempt + 1);
+              log.warn("🔁 Pagamento falhou para pedido {} (tentativa {}); nova tentativa em {} ms", orderId, attempt,
+                  delay.toMillis());
+              retries.schedule(orderId, exchange.getIn().getHeader("amount", Long.class), attempt + 1, delay);
+              metrics.retry(PaymentProperties.RetryStrategy.PERSISTENT);
+              attempts.retryScheduled(orderId, exchange.getExchangeId());
+              outcome(exchange, PaymentBatchResult.Outcome.RETRY_SCHEDULED);
+              return;
+          }
           log.warn("❌ Pagamento falhou para pedido {}", orderId);
           if (orderId != null) {
               orderService.markFailed(orderId);
+              attempts.failed(orderId, exchange.getExchangeId());
+              outcome(exchange, PaymentBatchResult.Outcome.FAILED);
           } else {
               log.warn("⚠️ Cabecalho orderId em falta.");
           }
-      })
-      .log("💥 Pagamento marcado como FAILED para pedido com orderId=${header.orderId}");
+      });
 
-  // 🚀 Rota principal
-	 from("direct:payOrder")
-     .routeId("payment-route")
-     .log("🔹 Processando pagamento para orderId=${header.orderId}, amount=${header.amount}")
+	  // ⏳ Limite adaptativo sem vaga depois de max-wait: o provedor não recusou nada, então o pedido
+	  // nunca vira FAILED_PAYMENT. PERSISTENT agenda a próxima tentativa; sem tentativas (ou IN_THREAD) fica adiado.
+	  onException(PaymentLimitExceededException.class)
+      .handled(true)
+      .process(exchange -> {
+          String orderId = exchange.getProperty("orderId", String.class);
+          int attempt = exchange.getIn().getHeader(ATTEMPT_HEADER, 1, Integer.class);
+          if (persistentRetry && attempt <= props.getRetry().getMaxRedeliveries()) {
+              Duration delay = props.getRetry().delayBefore(attempt + 1);
+              log.warn("⏳ Sem vaga no limite de pagamento para pedido {} (tentativa {}); nova tentativa em {} ms",
+                  orderId, attempt, delay.toMillis());
+              retries.schedule(orderId, exchange.getIn().getHeader("amount", Long.class), attempt + 1, delay);
+              metrics.retry(PaymentProperties.RetryStrategy.PERSISTENT);
+              attempts.retryScheduled(orderId, exchange.getExchangeId());
+              outcome(exchange, PaymentBatchResult.Outcome.RETRY_SCHEDULED);
+              return;
+          }
+          log.warn("⏸️ Pagamento adiado para pedido {}: sem vaga no limite de pagamento", orderId);
+          attempts.deferred(orderId, exchange.getExchangeId());
+          outcome(exchange, PaymentBatchResult.Outcome.DEFERRED);
+      });
+
+	  // ⚡ Circuito aberto ou bulkhead cheio: não há redelivery, falha rápido (ou adia) sem chamar o provedor
+	  onException(CallNotPermittedException.class, BulkheadFullException.class)
+      .handled(true)
+      .process(exchange -> {
+          String orderId = exchange.getProperty("orderId", String.class);
+          Exception cause = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+          if (props.getCircuitBreaker().getOpenAction() == PaymentProperties.OpenAction.DEFER) {
+              log.warn("⏸️ Pagamento adiado para pedido {}: {}", orderId, cause.getMessage());
+              attempts.deferred(orderId, exchange.getExchangeId());
+              outcome(exchange, PaymentBatchResult.Outcome.DEFERRED);
+          } else {
+              log.warn("⚡ Pagamento rejeitado sem chamar o provedor para pedido {}: {}", orderId, cause.getMessage());
+              orderService.markFailed(orderId);
+              attempts.failed(orderId, exchange.getExchangeId());
+              outcome(exchange, PaymentBatchResult.Outcome.FAILED);
+          }
+      });
 
-     // 3️⃣ Escolhe a URL conforme o valor
+  // 📨 Entrada assíncrona: o /pay só enfileira e a SEDA consome com concorrência limitada
+	 SedaEndpoint seda = getContext().getEndpoint(SEDA_PAY + "?concurrentConsumers="
+         + props.getDispatch().getConcurrentConsumers() + "&size=" + props.getDispatch().getQueueSize(), SedaEndpoint.class);
+	 from(seda)
+     .routeId("payment-async-route")
+     .to(DIRECT_PAY);
+
+  // 📦 Lote: um split paralelo (limitado por payment.batch.parallelism) que reaproveita a rota principal
+	 from(DIRECT_PAY_BATCH)
+     .routeId("payment-batch-route")
+     .log("📦 Processando lote de ${body.size()} pedidos")
+     .split(body(), new PaymentBatchAggregationStrategy())
+         .parallelProcessing()
+         .streaming()
+         .executorService(getContext().getExecutorServiceManager()
+             .newFixedThreadPool(this, "payment-batch", props.getBatch().getParallelism()))
+         .process(exchange -> {
+             Order order = exchange.getIn().getBody(Order.class);
+             exchange.setProperty("orderId", order.getId());
+             exchange.getIn().setHeader("orderId", order.getId());
+             exchange.getIn().setHeader("amount", order.getTotal());
+             exchange.getIn().setBody(null);
+         })
+         .to(DIRECT_PAY)
+     .end()
+     .log("📦 Lote concluído: paid=${body.paid}, failed=${body.failed}, errors=${body.errors}");
+
+  // 🚀 Rota principal: entra na pista do pedido, um pagamento por pedido de cada vez
+	 PaymentLanes lanes = new PaymentLanes(getContext(), this, DIRECT_PAY_LANE, props.getLanes());
+	 metrics.lanes(lanes);
+	 // O 429 do /pay olha tudo que está parado antes do provedor, não só quem já espera vaga no limite.
+	 guard.getLimiter().queued(() -> seda.getCurrentQueueSize() + lanes.depth());
+
+	 from(DIRECT_PAY)
+     .routeId("payment-route")
      .process(exchange -> {
     	 String orderId = exchange.getIn().getHeader("orderId", String.class);
          if (orderId == null) {
              throw new IllegalArgumentException("Cabecalho'orderId' obrigatorio");
          }
          exchange.setProperty("orderId", orderId);
-    	 
-         double amount = exchange.getIn().getHeader("amount", Double.class);
-         String url = amount > 1000 ? props.getFailureUrl() : props.getSuccessUrl();
+         metrics.started(exchange);
+     })
+     .process(lanes);
+
+  // 🛣️ Na thread da pista: nenhum outro pagamento deste pedido está em andamento
+	 from(DIRECT_PAY_LANE)
+     .routeId("payment-lane-route")
+     .log("🔹 Processando pagamento para orderId=${header.orderId}, amount=${header.amount}")
+
+     // 3️⃣ Confere o status e escolhe a URL conforme o valor
+     .process(exchange -> {
+         String orderId = exchange.getProperty("orderId", String.class);
+         // Serializado pela pista, o status lido aqui não muda até o fim da exchange: um pagamento
+         // repetido do mesmo pedido para antes de chamar o provedor.
+         Optional<OrderStatus> current = orderService.status(orderId);
+         if (current.isEmpty()) {
+             // Pedido apagado com pagamento ainda pendente: nada a cobrar, e SKIPPED fecha a linha
+             // de payment_retries ou do outbox em vez de chamar o provedor de novo a cada lease.
+             log.warn("⏭️ Pagamento ignorado para pedido {}: pedido não existe mais", orderId);
+             attempts.failed(orderId, exchange.getExchangeId());
+             outcome(exchange, PaymentBatchResult.Outcome.SKIPPED);
+             return;
+         }
+         OrderStatus status = current.get();
+         if (status != OrderStatus.NEW) {
+             log.info("⏭️ Pagamento ignorado para pedido {}: status já é {}", orderId, status);
+             if (status == OrderStatus.PAID) {
+                 attempts.paid(orderId, exchange.getExchangeId());
+             } else {
+                 attempts.failed(orderId, exchange.getExchangeId());
+             }
+             outcome(exchange, PaymentBatchResult.Outcome.SKIPPED);
+             return;
+         }
+         attempts.processing(orderId, exchange.getExchangeId());
+
+         Long amount = exchange.getIn().getHeader("amount", Long.class);
+         if (amount == null) {
+             throw new IllegalArgumentException("Cabecalho 'amount' obrigatorio");
+         }
+         String url = amount > FAILURE_THRESHOLD ? props.getFailureUrl() : props.getSuccessUrl();
          exchange.setProperty("targetUrl", url);
          exchange.getIn().setHeader(Exchange.HTTP_METHOD, "GET");
          exchange.getIn().setHeader(Exchange.HTTP_URI, url);
-    
-              })
+     })
 
+     .filter(exchangeProperty(OUTCOME_PROPERTY).isNull())
      .log("➡️ invocando o endpoint de pagamento: ${exchangeProperty.targetUrl}")
 
-     // 4️⃣ Faz a chamada HTTP
-     .toD("${exchangeProperty.targetUrl}?throwExceptionOnFailure=true") 
+     // 4️⃣ Faz a chamada HTTP (cada redelivery reentra na sub-rota e passa pelo breaker)
+     .to(DIRECT_PAY_HTTP)
 
      // 5️⃣ Marca o pedido como pago (se não houve exceção)
      .process(exchange -> {
          String orderId = exchange.getIn().getHeader("orderId", String.class);
          orderService.markPaid(orderId);
+         attempts.paid(orderId, exchange.getExchangeId());
+         outcome(exchange, PaymentBatchResult.Outcome.PAID);
          log.info("✅ Pagamento marcado como PAID para pedido {}", orderId);
      })
 
-     .log("✅ Pagamento completado com sucesso para pedido com orderId=${header.orderId}");
+     .log("✅ Pagamento completado com sucesso para pedido com orderId=${header.orderId}")
+     .end();
+
+  // 🌐 Chamada HTTP protegida por circuit breaker + bulkhead. Sem error handler próprio: a exceção
+  // volta para payment-route, que decide o redelivery/markFailed.
+	 PaymentHedger hedger = new PaymentHedger(getContext(), DIRECT_PAY_HTTP_CALL, props, metrics, guard);
+
+	 from(DIRECT_PAY_HTTP)
+     .routeId("payment-http-route")
+     .errorHandler(noErrorHandler())
+     .process(guard::acquire)
+     .doTry()
+         .process(hedger)
+         .process(exchange -> {
+             guard.onSuccess(exchange);
+             metrics.httpCall(exchange, null);
+         })
+     .doCatch(Exception.class)
+         .process(exchange -> {
+             Exception cause = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+             guard.onError(exchange, cause);
+             metrics.httpCall(exchange, cause);
+             throw cause;
+         })
+     .end();
+
+  // 📡 A chamada em si; com hedging o PaymentHedger pode mandar duas cópias da exchange para cá
+	 from(DIRECT_PAY_HTTP_CALL)
+     .routeId("payment-http-call-route")
+     .errorHandler(noErrorHandler())
+     .toD("${exchangeProperty.targetUrl}?throwExceptionOnFailure=true", props.getHttp().getEndpointCacheSize());
+  }
+
+  /** Resultado final desta exchange: propriedade lida pelo split/outbox e métricas. */
+  private void outcome(Exchange exchange, PaymentBatchResult.Outcome outcome) {
+    exchange.setProperty(OUTCOME_PROPERTY, outcome);
+    metrics.completed(exchange, outcome);
+    // Tentativa disparada pelo agendador: a linha em payment_retries só sai com resultado final.
+    if (exchange.getIn().getHeader(ATTEMPT_HEADER) != null && (outcome == PaymentBatchResult.Outcome.PAID
+        || outcome == PaymentBatchResult.Outcome.FAILED || outcome == PaymentBatchResult.Outcome.SKIPPED)) {
+      retries.completed(exchange.getProperty("orderId", String.class));
+    }
   }
 }
@@ -2,6 +2,7 @@ package com.example.challenge.mapper;
 
 import com.example.challenge.domain.*;
 import com.example.challenge.api.dto.NewOrderRequest;
+import com.example.challenge.api.dto.OrderResponse;
 import com.example.challenge.api.dto.UpdateOrderRequest;
 import org.springframework.stereotype.Component;
 
@@ -10,8 +11,31 @@ import java.util.List;
 @Component
 public class OrderMapper {
 
-	public static double calculateTotal(List<OrderItem> items) {
-		return items.stream().mapToDouble(i -> i.getQty() * i.getUnitPrice()).sum();
+	/** Total em centavos; laço indexado sobre long, sem boxing nem stream por chamada. */
+	public static long calculateTotal(List<OrderItem> items) {
+		long total = 0;
+		for (int i = 0, n = items.size(); i < n; i++) {
+			OrderItem item = items.get(i);
+			total = Math.addExact(total, Money.times(item.getUnitPrice(), item.getQty()));
+		}
+		return total;
+	}
+
+	public static OrderResponse toResponse(Order order) {
+		OrderResponse response = new OrderResponse();
+		response.setId(order.getId());
+		response.setCustomerId(order.getCustomerId());
+		response.setTotal(order.getTotal());
+		response.setStatus(order.getStatus());
+		response.setItems(order.getItems().stream().map(i -> {
+			OrderResponse.Item item = new OrderResponse.Item();
+			item.setId(i.getId());
+			item.setSku(i.getSku());
+			item.setQty(i.getQty());
+			item.setUnitPrice(i.getUnitPrice());
+			return item;
+		}).toList());
+		return response;
 	}
 
 	public Order toEntity(NewOrderRequest request) {
@@ -29,7 +53,7 @@ public class OrderMapper {
 
 		order.setItems(items);
 
-		double total = calculateTotal(items);
+		long total = calculateTotal(items);
 
 		order.setTotal(total);
 		order.setStatus(OrderStatus.NEW);
@@ -48,11 +72,11 @@ public class OrderMapper {
 			return item;
 		}).toList();
 
+		// A coleção é gerenciada pelo Hibernate (orphanRemoval): troca o conteúdo, não a lista.
 		order.getItems().clear();
+		order.getItems().addAll(newItems);
 
-		order.setItems(newItems);
-
-		double total = calculateTotal(newItems);
+		long total = calculateTotal(newItems);
 
 		order.setTotal(total);
 
@@ -0,0 +1,26 @@
+package com.example.challenge.repo;
+
+import com.example.challenge.domain.ArchivedOrder;
+import com.example.challenge.domain.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, String> {
+
+  @Query("select a.version from ArchivedOrder a where a.id = :id")
+  Optional<Long> findVersionById(@Param("id") String id);
+
+  @Query("select a.status from ArchivedOrder a where a.id = :id")
+  Optional<OrderStatus> findStatusById(@Param("id") String id);
+
+  @Query("select new com.example.challenge.repo.OrderState(a.id, a.status, a.total) from ArchivedOrder a where a.id = :id")
+  Optional<OrderState> findStateById(@Param("id") String id);
+
+  // Mesma agregação de OrderRepository.summarizeByStatus, para o resumo somar quente + arquivo.
+  @Query("select a.status as status, count(a) as count, coalesce(sum(a.total), 0) as amount from ArchivedOrder a group by a.status")
+  List<OrderRepository.StatusTotals> summarizeByStatus();
+}
@@ -2,10 +2,104 @@ package com.example.challenge.repo;
 
 import com.example.challenge.domain.Order;
 import com.example.challenge.domain.OrderStatus;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, String> {
   List<Order> findByStatus(OrderStatus status);
+
+  List<Order> findByStatus(OrderStatus status, Pageable pageable);
+
+  @EntityGraph(attributePaths = "items")
+  Optional<Order> findWithItemsById(String id);
+
+  interface StatusTotals {
+    OrderStatus getStatus();
+
+    long getCount();
+
+    long getAmount();
+  }
+
+  // Quantidade e soma de total (centavos) por status numa única agregação.
+  @Query("select o.status as status, count(o) as count, coalesce(sum(o.total), 0) as amount from Order o group by o.status")
+  List<StatusTotals> summarizeByStatus();
+
+  @Query("select o.total from Order o where o.id = :id")
+  Optional<Long> findTotalById(@Param("id") String id);
+
+  @Query("select o.version from Order o where o.id = :id")
+  Optional<Long> findVersionById(@Param("id") String id);
+
+  @Query("select o.status from Order o where o.id = :id")
+  Optional<OrderStatus> findStatusById(@Param("id") String id);
+
+  @Query("select new com.example.challenge.repo.OrderState(o.id, o.status, o.total) from Order o where o.id = :id")
+  Optional<OrderState> findStateById(@Param("id") String id);
+
+  // SELECT ... FOR UPDATE: serializa quem decide algo a partir do status até o commit.
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select o.status from Order o where o.id = :id")
+  Optional<OrderStatus> lockStatusById(@Param("id") String id);
+
+  // Compare-and-set de status em um único UPDATE; retorna 0 se o pedido não estava em 'from'.
+  @Modifying(clearAutomatically = true)
+  @Query("update Order o set o.status = :to, o.version = o.version + 1, o.updatedAt = instant where o.id = :id and o.status = :from")
+  int transition(@Param("id") String id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+  // Leituras com itens: primeiro os ids da página (keyset, id = "" na primeira), depois um
+  // único fetch join pelos ids. Limit direto no fetch join forçaria paginação em memória.
+  @Query("select o.id from Order o where o.id > :after order by o.id")
+  List<String> findIdsAfter(@Param("after") String after, Limit limit);
+
+  @Query("select o.id from Order o where o.status = :status and o.id > :after order by o.id")
+  List<String> findIdsByStatusAfter(@Param("status") OrderStatus status, @Param("after") String after, Limit limit);
+
+  // Mesma página com a versão de cada pedido: o bastante para a ETag sem tocar nos itens.
+  @Query("select new com.example.challenge.repo.OrderVersion(o.id, o.version) from Order o where o.id > :after order by o.id")
+  List<OrderVersion> findVersionsAfter(@Param("after") String after, Limit limit);
+
+  @Query("select new com.example.challenge.repo.OrderVersion(o.id, o.version) from Order o where o.status = :status and o.id > :after order by o.id")
+  List<OrderVersion> findVersionsByStatusAfter(@Param("status") OrderStatus status, @Param("after") String after,
+      Limit limit);
+
+  @Query("select distinct o from Order o left join fetch o.items where o.id in :ids order by o.id")
+  List<Order> findWithItemsByIdIn(@Param("ids") Collection<String> ids);
+
+  // Pedidos em status final sem escrita desde :cutoff: candidatos ao arquivo (índice status, updatedAt).
+  @Query("select o.id from Order o where o.status in :statuses and o.updatedAt < :cutoff order by o.id")
+  List<String> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses, @Param("cutoff") Instant cutoff,
+      Limit limit);
+
+  @Modifying
+  @Query("delete from OrderItem i where i.order.id in :ids")
+  int deleteItemsByOrderIdIn(@Param("ids") Collection<String> ids);
+
+  @Modifying
+  @Query("delete from Order o where o.id in :ids")
+  int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("select o.id from Order o order by o.id")
+  Stream<String> streamIds();
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("select o.id from Order o where o.status = :status order by o.id")
+  Stream<String> streamIdsByStatus(@Param("status") OrderStatus status);
 }
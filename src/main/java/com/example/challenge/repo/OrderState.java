@@ -0,0 +1,7 @@
+package com.example.challenge.repo;
+
+import com.example.challenge.domain.OrderStatus;
+
+/** Status e total (centavos) de um pedido, sem carregar a entidade nem os itens. */
+public record OrderState(String id, OrderStatus status, long total) {
+}
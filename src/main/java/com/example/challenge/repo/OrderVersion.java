@@ -0,0 +1,12 @@
+package com.example.challenge.repo;
+
+import com.example.challenge.domain.Order;
+
+/** Id e versão de um pedido, sem carregar a entidade; base das ETags de leitura. */
+public record OrderVersion(String id, long version) {
+
+  /** Versão nula (pedido ainda não persistido) conta como 0, a versão inicial do @Version. */
+  public static OrderVersion of(Order order) {
+    return new OrderVersion(order.getId(), order.getVersion() == null ? 0 : order.getVersion());
+  }
+}
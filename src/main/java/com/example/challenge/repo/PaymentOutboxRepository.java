@@ -0,0 +1,51 @@
+package com.example.challenge.repo;
+
+import com.example.challenge.domain.OutboxStatus;
+import com.example.challenge.domain.PaymentOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxEntry, Long> {
+
+  boolean existsByOrderIdAndStatusIn(String orderId, Collection<OutboxStatus> statuses);
+
+  // SELECT ... FOR UPDATE SKIP LOCKED: pollers concorrentes pulam as linhas já travadas por outro
+  // claim em vez de esperar por elas. Nativa porque o H2Dialect do Hibernate descarta o SKIP LOCKED
+  // (o H2 2.2 e o PostgreSQL aceitam esta mesma sintaxe). Claims com lease vencido voltam.
+  @Query(value = "select * from payment_outbox where (status = 'PENDING' and available_at <= :now)"
+      + " or (status = 'CLAIMED' and claimed_at < :staleBefore)"
+      + " order by id fetch first :limit rows only for update skip locked", nativeQuery = true)
+  List<PaymentOutboxEntry> findClaimable(@Param("now") Instant now, @Param("staleBefore") Instant staleBefore,
+      @Param("limit") int limit);
+
+  @Modifying(clearAutomatically = true)
+  @Query("update PaymentOutboxEntry e set e.status = com.example.challenge.domain.OutboxStatus.CLAIMED,"
+      + " e.claimedAt = :now, e.attempts = e.attempts + 1 where e.id in :ids")
+  int markClaimed(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+  @Modifying(clearAutomatically = true)
+  @Query("update PaymentOutboxEntry e set e.status = com.example.challenge.domain.OutboxStatus.DONE,"
+      + " e.outcome = :outcome, e.processedAt = :now where e.id in :ids")
+  int markDone(@Param("ids") Collection<Long> ids, @Param("outcome") String outcome, @Param("now") Instant now);
+
+  // Devolve para PENDING a partir de 'availableAt'; 'refund' desconta a tentativa do claim
+  // (adiamentos por circuito aberto não contam para max-attempts).
+  @Modifying(clearAutomatically = true)
+  @Query("update PaymentOutboxEntry e set e.status = com.example.challenge.domain.OutboxStatus.PENDING,"
+      + " e.outcome = :outcome, e.availableAt = :availableAt, e.attempts = e.attempts - :refund"
+      + " where e.id in :ids and e.status = com.example.challenge.domain.OutboxStatus.CLAIMED")
+  int reschedule(@Param("ids") Collection<Long> ids, @Param("outcome") String outcome,
+      @Param("availableAt") Instant availableAt, @Param("refund") int refund);
+
+  @Modifying(clearAutomatically = true)
+  @Query("update PaymentOutboxEntry e set e.status = com.example.challenge.domain.OutboxStatus.DEAD,"
+      + " e.outcome = :outcome, e.processedAt = :now where e.id in :ids and e.attempts >= :maxAttempts")
+  int markDead(@Param("ids") Collection<Long> ids, @Param("outcome") String outcome,
+      @Param("maxAttempts") int maxAttempts, @Param("now") Instant now);
+}
@@ -0,0 +1,30 @@
+package com.example.challenge.repo;
+
+import com.example.challenge.domain.PaymentRetry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PaymentRetryRepository extends JpaRepository<PaymentRetry, Long> {
+
+  @Query("select r from PaymentRetry r where r.dueAt < :before order by r.dueAt")
+  List<PaymentRetry> findDueBefore(@Param("before") Instant before, Limit limit);
+
+  // Claim do disparo: só quem empurrar dueAt (1) envia a tentativa. A linha fica até o resultado
+  // final; se o processo cair antes, a tentativa vence de novo em leaseUntil.
+  @Transactional
+  @Modifying
+  @Query("update PaymentRetry r set r.dueAt = :leaseUntil where r.id = :id and r.dueAt <= :now")
+  int claim(@Param("id") Long id, @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+  @Transactional
+  @Modifying
+  @Query("delete from PaymentRetry r where r.orderId = :orderId")
+  int deleteByOrderId(@Param("orderId") String orderId);
+}
@@ -0,0 +1,28 @@
+package com.example.challenge.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Arquivo de pedidos em status final: a cada interval-ms os que estão há mais de retention sem
+ * escrita saem de orders/order_items para orders_archive, batch-size pedidos por transação.
+ */
+@Component
+@ConfigurationProperties(prefix = "orders.archive")
+public class OrderArchiveProperties {
+  private boolean enabled = true;
+  private Duration retention = Duration.ofDays(7);
+  private int batchSize = 500;
+  private long intervalMs = 300000;
+
+  public boolean isEnabled() { return enabled; }
+  public void setEnabled(boolean enabled) { this.enabled = enabled; }
+  public Duration getRetention() { return retention; }
+  public void setRetention(Duration retention) { this.retention = retention; }
+  public int getBatchSize() { return batchSize; }
+  public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+  public long getIntervalMs() { return intervalMs; }
+  public void setIntervalMs(long intervalMs) { this.intervalMs = intervalMs; }
+}
@@ -0,0 +1,54 @@
+package com.example.challenge.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Mantém a tabela quente pequena: PAID, FAILED_PAYMENT e CANCELLED nunca mudam, então depois de
+ * orders.archive.retention sem escrita o pedido vai para orders_archive em lotes de
+ * orders.archive.batch-size (uma transação por lote, até esvaziar). Listagens e varreduras só veem
+ * a tabela quente; {@link OrderService#get} cai no arquivo quando o pedido não está nela.
+ * Métrica orders.archive.archived.
+ */
+@Component
+public class OrderArchiver {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+  private final OrderService service;
+  private final OrderArchiveProperties props;
+  private final Counter archived;
+
+  public OrderArchiver(OrderService service, OrderArchiveProperties props, MeterRegistry registry) {
+    this.service = service;
+    this.props = props;
+    this.archived = Counter.builder("orders.archive.archived")
+        .description("Pedidos em status final movidos para orders_archive")
+        .register(registry);
+  }
+
+  @Scheduled(fixedDelayString = "${orders.archive.interval-ms:300000}",
+      initialDelayString = "${orders.archive.interval-ms:300000}")
+  public void run() {
+    if (!props.isEnabled()) {
+      return;
+    }
+    Instant cutoff = Instant.now().minus(props.getRetention());
+    int total = 0;
+    int batch;
+    do {
+      batch = service.archive(cutoff, props.getBatchSize());
+      total += batch;
+      archived.increment(batch);
+    } while (batch == props.getBatchSize());
+    if (total > 0) {
+      log.info("🗄️ {} pedidos em status final arquivados (sem escrita desde {})", total, cutoff);
+    }
+  }
+}
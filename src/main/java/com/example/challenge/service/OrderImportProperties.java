@@ -0,0 +1,20 @@
+package com.example.challenge.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Importação em lote: chunk-size pedidos por transação (flush + clear a cada chunk, inserts em
+ * lotes JDBC de hibernate.jdbc.batch_size); max-errors limita o relatório, não a importação.
+ */
+@Component
+@ConfigurationProperties(prefix = "orders.import")
+public class OrderImportProperties {
+  private int chunkSize = 1000;
+  private int maxErrors = 1000;
+
+  public int getChunkSize() { return chunkSize; }
+  public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+  public int getMaxErrors() { return maxErrors; }
+  public void setMaxErrors(int maxErrors) { this.maxErrors = maxErrors; }
+}
@@ -0,0 +1,59 @@
+package com.example.challenge.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Resultado de uma importação; {@code line} é a linha do registro no arquivo (1 = primeira). */
+public class OrderImportReport {
+
+  public static class Error {
+    private final long line;
+    private final String message;
+
+    public Error(long line, String message) {
+      this.line = line;
+      this.message = message;
+    }
+
+    public long getLine() { return line; }
+    public String getMessage() { return message; }
+  }
+
+  private final int maxErrors;
+  private final List<Error> errors = new ArrayList<>();
+  private long received;
+  private long imported;
+  private long rejected;
+  private long durationMs;
+
+  public OrderImportReport(int maxErrors) {
+    this.maxErrors = maxErrors;
+  }
+
+  void received() {
+    received++;
+  }
+
+  void imported(int count) {
+    imported += count;
+  }
+
+  void rejected(long line, String message) {
+    rejected++;
+    if (errors.size() < maxErrors) {
+      errors.add(new Error(line, message));
+    }
+  }
+
+  void finished(long durationMs) {
+    this.durationMs = durationMs;
+  }
+
+  public long getReceived() { return received; }
+  public long getImported() { return imported; }
+  public long getRejected() { return rejected; }
+  public long getDurationMs() { return durationMs; }
+  public List<Error> getErrors() { return errors; }
+  /** true quando há mais rejeições do que erros listados (orders.import.max-errors). */
+  public boolean isErrorsTruncated() { return rejected > errors.size(); }
+}
@@ -0,0 +1,268 @@
+package com.example.challenge.service;
+
+import com.example.challenge.api.dto.NewOrderRequest;
+import com.example.challenge.domain.Money;
+import com.example.challenge.domain.Order;
+import com.example.challenge.mapper.OrderMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de pedidos em lote, lida em streaming: o arquivo nunca fica inteiro em memória, só o
+ * chunk corrente. Cada registro é validado como um {@link NewOrderRequest}; os válidos são gravados
+ * em transações de orders.import.chunk-size pedidos, com os inserts agrupados em lotes JDBC (ids
+ * de itens vêm de sequence com pool, então o Hibernate não precisa de um round trip por item). Se
+ * um chunk falhar no banco, os pedidos dele são regravados um a um para isolar o registro ruim.
+ * <p>
+ * Os preços são gravados como vieram (dados históricos/parceiros); o catálogo não é consultado.
+ */
+@Service
+public class OrderImporter {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderImporter.class);
+
+  public enum Format { NDJSON, CSV }
+
+  /** Cabeçalho (opcional) do CSV: uma linha por item, linhas seguidas com o mesmo ref formam um pedido. */
+  static final String CSV_HEADER = "ref,customerId,sku,qty,unitPrice";
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate tx;
+  private final Validator validator;
+  private final ApplicationEventPublisher events;
+  private final ObjectReader ndjson;
+  private final OrderImportProperties props;
+
+  public OrderImporter(EntityManager entityManager, PlatformTransactionManager transactionManager,
+      Validator validator, ApplicationEventPublisher events, ObjectMapper objectMapper,
+      OrderImportProperties props) {
+    this.entityManager = entityManager;
+    this.tx = new TransactionTemplate(transactionManager);
+    this.validator = validator;
+    this.events = events;
+    this.ndjson = objectMapper.readerFor(NewOrderRequest.class);
+    this.props = props;
+  }
+
+  private record Parsed(long line, NewOrderRequest request, String error) {
+  }
+
+  public OrderImportReport importOrders(InputStream in, Format format) throws IOException {
+    long start = System.nanoTime();
+    OrderImportReport report = new OrderImportReport(props.getMaxErrors());
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    RecordSource source = format == Format.CSV ? new CsvSource(reader) : new NdjsonSource(reader);
+
+    // Guarda os requests, não as entidades: se o chunk voltar, o retry um a um parte de objetos novos.
+    List<NewOrderRequest> chunk = new ArrayList<>(props.getChunkSize());
+    List<Long> lines = new ArrayList<>(props.getChunkSize());
+    for (Parsed parsed = source.next(); parsed != null; parsed = source.next()) {
+      report.received();
+      String error = parsed.error() != null ? parsed.error() : validate(parsed.request());
+      if (error != null) {
+        report.rejected(parsed.line(), error);
+        continue;
+      }
+      chunk.add(parsed.request());
+      lines.add(parsed.line());
+      if (chunk.size() == props.getChunkSize()) {
+        write(chunk, lines, report);
+      }
+    }
+    write(chunk, lines, report);
+    report.finished((System.nanoTime() - start) / 1_000_000);
+    log.info("Importação {}: {} recebidos, {} gravados, {} rejeitados em {} ms", format, report.getReceived(),
+        report.getImported(), report.getRejected(), report.getDurationMs());
+    return report;
+  }
+
+  private String validate(NewOrderRequest request) {
+    Set<ConstraintViolation<NewOrderRequest>> violations = validator.validate(request);
+    if (violations.isEmpty()) {
+      try {
+        long total = 0;
+        for (NewOrderRequest.Item item : request.getItems()) {
+          total = Math.addExact(total, Money.times(item.getUnitPrice(), item.getQty()));
+        }
+        return null;
+      } catch (ArithmeticException e) {
+        return "total excede o limite de valor";
+      }
+    }
+    return violations.stream()
+        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+        .sorted()
+        .collect(Collectors.joining("; "));
+  }
+
+  private void write(List<NewOrderRequest> chunk, List<Long> lines, OrderImportReport report) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    try {
+      persist(chunk);
+      report.imported(chunk.size());
+    } catch (RuntimeException e) {
+      log.warn("Chunk de {} pedidos falhou ({}); gravando um a um", chunk.size(), e.getMessage());
+      for (int i = 0; i < chunk.size(); i++) {
+        try {
+          persist(List.of(chunk.get(i)));
+          report.imported(1);
+        } catch (RuntimeException single) {
+          report.rejected(lines.get(i), "falha ao gravar: " + rootMessage(single));
+        }
+      }
+    }
+    chunk.clear();
+    lines.clear();
+  }
+
+  private void persist(List<NewOrderRequest> requests) {
+    OrderMapper mapper = new OrderMapper();
+    tx.executeWithoutResult(status -> {
+      List<Order> orders = new ArrayList<>(requests.size());
+      for (NewOrderRequest request : requests) {
+        Order order = mapper.toEntity(request);
+        entityManager.persist(order);
+        orders.add(order);
+      }
+      entityManager.flush();
+      entityManager.clear();
+      orders.forEach(order -> events.publishEvent(OrderStatusChangedEvent.created(order)));
+    });
+  }
+
+  private static String rootMessage(Throwable e) {
+    Throwable root = e;
+    while (root.getCause() != null && root.getCause() != root) {
+      root = root.getCause();
+    }
+    return root.getMessage();
+  }
+
+  private interface RecordSource {
+    /** Próximo registro, ou null no fim do arquivo. */
+    Parsed next() throws IOException;
+  }
+
+  /** Um NewOrderRequest em JSON por linha; linhas em branco são ignoradas. */
+  private final class NdjsonSource implements RecordSource {
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    NdjsonSource(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public Parsed next() throws IOException {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        try {
+          NewOrderRequest request = ndjson.readValue(line);
+          if (request == null) {
+            return new Parsed(lineNumber, null, "registro nulo");
+          }
+          return new Parsed(lineNumber, request, null);
+        } catch (JsonProcessingException e) {
+          return new Parsed(lineNumber, null, "JSON inválido: " + e.getOriginalMessage());
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * {@value #CSV_HEADER}, sem aspas. Linhas consecutivas com o mesmo ref viram um pedido; o
+   * registro é identificado pela primeira linha do grupo e qualquer linha inválida rejeita o pedido.
+   */
+  private static final class CsvSource implements RecordSource {
+    private final BufferedReader reader;
+    private long lineNumber;
+    private String[] pending;
+    private long pendingLine;
+
+    CsvSource(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public Parsed next() throws IOException {
+      String[] first = pending != null ? pending : read();
+      long firstLine = pending != null ? pendingLine : lineNumber;
+      pending = null;
+      if (first == null) {
+        return null;
+      }
+      NewOrderRequest request = new NewOrderRequest();
+      request.setItems(new ArrayList<>());
+      String error = null;
+      String[] row = first;
+      long rowLine = firstLine;
+      while (true) {
+        if (row.length != 5) {
+          error = error != null ? error : "linha " + rowLine + ": esperadas 5 colunas (" + CSV_HEADER + ")";
+        } else {
+          request.setCustomerId(row[1]);
+          try {
+            NewOrderRequest.Item item = new NewOrderRequest.Item();
+            item.setSku(row[2]);
+            item.setQty(Integer.parseInt(row[3]));
+            item.setUnitPrice(Money.parse(row[4]));
+            request.getItems().add(item);
+          } catch (IllegalArgumentException | ArithmeticException e) {
+            error = error != null ? error : "linha " + rowLine + ": " + e.getMessage();
+          }
+        }
+        row = read();
+        rowLine = lineNumber;
+        if (row == null || !row[0].equals(first[0])) {
+          pending = row;
+          pendingLine = rowLine;
+          break;
+        }
+      }
+      return new Parsed(firstLine, error == null ? request : null, error);
+    }
+
+    private String[] read() throws IOException {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank() || (lineNumber == 1 && line.startsWith("ref,"))) {
+          continue;
+        }
+        String[] cols = line.split(",", -1);
+        for (int i = 0; i < cols.length; i++) {
+          cols[i] = cols[i].trim();
+        }
+        return cols;
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.challenge.service;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Habilita {@code @Timed}: cada método público do {@link OrderService} vira orders.service{class,method}. */
+@Configuration
+public class OrderMetricsConfig {
+
+  @Bean
+  TimedAspect timedAspect(MeterRegistry registry) {
+    return new TimedAspect(registry);
+  }
+}
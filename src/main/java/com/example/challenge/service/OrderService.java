@@ -2,44 +2,205 @@ package com.example.challenge.service;
 
 import com.example.challenge.api.dto.NewOrderRequest;
 import com.example.challenge.api.dto.UpdateOrderRequest;
+import com.example.challenge.catalog.Product;
+import com.example.challenge.catalog.ProductCatalog;
 import com.example.challenge.mapper.OrderMapper;
+import com.example.challenge.domain.ArchivedOrder;
 import com.example.challenge.domain.Order;
 import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.repo.ArchivedOrderRepository;
 import com.example.challenge.repo.OrderRepository;
+import com.example.challenge.repo.OrderState;
+import com.example.challenge.repo.OrderVersion;
+import io.micrometer.core.annotation.Timed;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "orders.service", histogram = true)
 public class OrderService {
 
+	static final int STREAM_CHUNK_SIZE = 500;
+
+	/** Status que nunca mudam: {@link #findOrder} só aceita NEW. */
+	static final Set<OrderStatus> FINAL_STATUSES = EnumSet.of(OrderStatus.PAID, OrderStatus.FAILED_PAYMENT,
+			OrderStatus.CANCELLED);
+
 	private final OrderRepository repo;
+	private final ArchivedOrderRepository archive;
+	private final EntityManager entityManager;
+	private final ProductCatalog catalog;
+	private final ApplicationEventPublisher events;
+	private final TransactionTemplate tx;
 
-	public OrderService(OrderRepository repo) {
+	public OrderService(OrderRepository repo, ArchivedOrderRepository archive, EntityManager entityManager,
+			ProductCatalog catalog, ApplicationEventPublisher events, PlatformTransactionManager transactionManager) {
 		this.repo = repo;
+		this.archive = archive;
+		this.entityManager = entityManager;
+		this.catalog = catalog;
+		this.events = events;
+		this.tx = new TransactionTemplate(transactionManager);
 	}
 
-	@Transactional
+	/** Os preços do catálogo são resolvidos antes da transação: a consulta HTTP não segura conexão JDBC. */
 	public Order create(NewOrderRequest req) {
 
-		Order order = new OrderMapper().toEntity(req);
-		return repo.save(order);
+		Map<String, Product> products = catalogPrices(req.getItems(), NewOrderRequest.Item::getSku);
+		return tx.execute(status -> {
+			Order order = new OrderMapper().toEntity(req);
+			applyCatalogPrices(order, products);
+			Order saved = repo.save(order);
+			events.publishEvent(OrderStatusChangedEvent.created(saved));
+			return saved;
+		});
 	}
 
+	/** Pedido com itens; fora da tabela quente, procura no arquivo. */
 	public Optional<Order> get(String id) {
-		return repo.findById(id);
+		return repo.findWithItemsById(id).or(() -> archive.findById(id).map(ArchivedOrder::toOrder));
+	}
+
+	/**
+	 * Página ordenada por id, começando depois do cursor {@code after} (vazio na primeira página).
+	 * Sempre duas consultas: os ids da página e um fetch join dos pedidos com itens.
+	 */
+	public List<Order> page(Optional<OrderStatus> status, String after, int limit) {
+		String cursor = after == null ? "" : after;
+		List<String> ids = status.map(s -> repo.findIdsByStatusAfter(s, cursor, Limit.of(limit)))
+				.orElseGet(() -> repo.findIdsAfter(cursor, Limit.of(limit)));
+		return load(ids);
+	}
+
+	/** Ids e versões da mesma página de {@link #page}, sem carregar pedidos nem itens. */
+	public List<OrderVersion> pageVersions(Optional<OrderStatus> status, String after, int limit) {
+		String cursor = after == null ? "" : after;
+		return status.map(s -> repo.findVersionsByStatusAfter(s, cursor, Limit.of(limit)))
+				.orElseGet(() -> repo.findVersionsAfter(cursor, Limit.of(limit)));
+	}
+
+	/** Pedidos com itens, em ordem de id. */
+	public List<Order> load(List<String> ids) {
+		return ids.isEmpty() ? List.of() : repo.findWithItemsByIdIn(ids);
+	}
+
+	public Optional<Long> version(String id) {
+		return repo.findVersionById(id).or(() -> archive.findVersionById(id));
+	}
+
+	public Optional<OrderStatus> status(String id) {
+		return repo.findStatusById(id).or(() -> archive.findStatusById(id));
+	}
+
+	/** Status e total do pedido (quente ou arquivado) numa projeção, sem os itens. */
+	public Optional<OrderState> state(String id) {
+		return repo.findStateById(id).or(() -> archive.findStateById(id));
+	}
+
+	/**
+	 * Move até {@code limit} pedidos em status final sem escrita desde {@code cutoff} para
+	 * orders_archive, numa transação: grava o arquivo e apaga itens e pedidos da tabela quente.
+	 * Não publica evento: status e total não mudam, só o lugar onde o pedido está.
+	 *
+	 * @return quantos pedidos foram arquivados
+	 */
+	@Transactional
+	public int archive(Instant cutoff, int limit) {
+		List<String> ids = repo.findArchivableIds(FINAL_STATUSES, cutoff, Limit.of(limit));
+		if (ids.isEmpty())
+			return 0;
+
+		Instant now = Instant.now();
+		// persist e não save: com id atribuído o save faria um SELECT por pedido para decidir entre insert e merge.
+		repo.findWithItemsByIdIn(ids).forEach(order -> entityManager.persist(ArchivedOrder.of(order, now)));
+		entityManager.flush();
+		entityManager.clear();
+		repo.deleteItemsByOrderIdIn(ids);
+		repo.deleteByIdIn(ids);
+		return ids.size();
 	}
 
-	public List<Order> list(Optional<OrderStatus> status) {
-		return status.map(repo::findByStatus).orElseGet(repo::findAll);
+	/**
+	 * Percorre os pedidos em ordem de id com um cursor JDBC sobre os ids, carregando os itens em
+	 * blocos de {@value #STREAM_CHUNK_SIZE} pedidos. O contexto de persistência é limpo a cada bloco
+	 * para que a memória não cresça com o tamanho do resultado.
+	 */
+	@Transactional(readOnly = true)
+	public void forEach(Optional<OrderStatus> status, Consumer<Order> consumer) {
+		try (Stream<String> ids = status.map(repo::streamIdsByStatus).orElseGet(repo::streamIds)) {
+			List<String> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+			Iterator<String> it = ids.iterator();
+			while (it.hasNext()) {
+				chunk.add(it.next());
+				if (chunk.size() == STREAM_CHUNK_SIZE || !it.hasNext()) {
+					repo.findWithItemsByIdIn(chunk).forEach(consumer);
+					entityManager.clear();
+					chunk.clear();
+				}
+			}
+		}
+	}
+
+	public List<Order> findAllById(List<String> ids) {
+		return repo.findAllById(ids);
+	}
+
+	/** Os primeiros {@code limit} pedidos no status, em ordem de id como o resto da paginação. */
+	public List<Order> list(OrderStatus status, int limit) {
+		return repo.findByStatus(status, PageRequest.of(0, limit, Sort.by("id")));
+	}
+
+	/**
+	 * Com dummyjson.catalog.enabled, valida os SKUs no catálogo (todos de uma vez); vazio com o
+	 * catálogo desligado. Chamado fora de transação.
+	 */
+	private <T> Map<String, Product> catalogPrices(List<T> items, Function<T, String> sku) {
+		if (!catalog.isEnabled())
+			return Map.of();
+
+		return catalog.resolve(items.stream().map(sku).collect(Collectors.toSet()));
+	}
+
+	/** Usa o preço do catálogo no lugar do unitPrice enviado pelo cliente. */
+	private void applyCatalogPrices(Order order, Map<String, Product> products) {
+		if (!catalog.isEnabled())
+			return;
+
+		order.getItems().forEach(item -> item.setUnitPrice(products.get(item.getSku()).getPrice()));
+		order.setTotal(OrderMapper.calculateTotal(order.getItems()));
 	}
 
 	private Order findOrder(String id) {
-		Order order = repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + id));
+		Optional<Order> hot = repo.findById(id);
+		if (hot.isEmpty()) {
+			// Só pedidos em status final vão para o arquivo: o mesmo 409 de antes de arquivar.
+			OrderStatus archived = archive.findStatusById(id)
+					.orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + id));
+			throw new IllegalStateException("Não pode processar pedido com status " + archived);
+		}
+		Order order = hot.get();
 
 		if (order.getStatus() != OrderStatus.NEW) {
 			throw new IllegalStateException("Não pode processar pedido com status " + order.getStatus());
@@ -48,31 +209,49 @@ public class OrderService {
 
 	}
 
-	@Transactional
 	public Order updateItems(String id, UpdateOrderRequest req) {
-		Order order = findOrder(id);
-		order = new OrderMapper().updateEntity(order, req);
+		Map<String, Product> products = catalogPrices(req.getItems(), UpdateOrderRequest.Item::getSku);
+		return tx.execute(status -> {
+			Order order = findOrder(id);
+			long previousTotal = order.getTotal();
+			order = new OrderMapper().updateEntity(order, req);
+			applyCatalogPrices(order, products);
 
-		return repo.save(order);
+			Order saved = repo.save(order);
+			events.publishEvent(new OrderStatusChangedEvent(id, OrderStatus.NEW, previousTotal, OrderStatus.NEW,
+					saved.getTotal()));
+			return saved;
+		});
 	}
 
 	@Transactional
 	public void delete(String id) {
 		Order order = findOrder(id);
 		repo.delete(order);
+		events.publishEvent(OrderStatusChangedEvent.deleted(order));
 	}
 
 	@Transactional
 	public void markPaid(String id) {
-		Order order = findOrder(id);
-		order.setStatus(OrderStatus.PAID);
-		repo.save(order);
+		transitionFromNew(id, OrderStatus.PAID);
 	}
 
 	@Transactional
 	public void markFailed(String id) {
-		Order order = findOrder(id);
-		order.setStatus(OrderStatus.FAILED_PAYMENT);
-		repo.save(order);
+		transitionFromNew(id, OrderStatus.FAILED_PAYMENT);
+	}
+
+	/**
+	 * NEW -> {@code to} num único UPDATE condicional: só um pagamento concorrente ganha. O status
+	 * atual só é lido quando a transição perde, para montar a mesma exceção de {@link #findOrder}.
+	 */
+	private void transitionFromNew(String id, OrderStatus to) {
+		if (repo.transition(id, OrderStatus.NEW, to) == 0) {
+			OrderStatus current = status(id)
+					.orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + id));
+			throw new IllegalStateException("Não pode processar pedido com status " + current);
+		}
+		long total = repo.findTotalById(id).orElse(0L);
+		events.publishEvent(new OrderStatusChangedEvent(id, OrderStatus.NEW, total, to, total));
 	}
 }
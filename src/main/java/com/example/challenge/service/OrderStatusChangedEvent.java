@@ -0,0 +1,19 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderStatus;
+
+/**
+ * Publicado pelo {@link OrderService} a cada mudança de status ou de total. {@code from} é null na
+ * criação e {@code to} é null na exclusão; totais em centavos.
+ */
+public record OrderStatusChangedEvent(String orderId, OrderStatus from, long fromTotal, OrderStatus to, long toTotal) {
+
+  static OrderStatusChangedEvent created(Order order) {
+    return new OrderStatusChangedEvent(order.getId(), null, 0, order.getStatus(), order.getTotal());
+  }
+
+  static OrderStatusChangedEvent deleted(Order order) {
+    return new OrderStatusChangedEvent(order.getId(), order.getStatus(), order.getTotal(), null, 0);
+  }
+}
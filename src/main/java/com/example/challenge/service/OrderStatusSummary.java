@@ -0,0 +1,167 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.repo.ArchivedOrderRepository;
+import com.example.challenge.repo.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Quantidade e soma de total por status mantidas em memória: cada {@link OrderStatusChangedEvent}
+ * é aplicado depois do commit em contadores {@link LongAdder}, então ler o resumo não toca no banco.
+ * Na subida os contadores vêm de um único group by; a cada orders.summary.reconcile-interval-ms o
+ * mesmo group by é comparado com a memória e uma divergência que se repete em duas rodadas
+ * seguidas é corrigida (orders.summary.drift). Pedidos arquivados continuam contando. Também
+ * expõe o gauge orders.status{status}.
+ */
+@Component
+public class OrderStatusSummary implements MeterBinder {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderStatusSummary.class);
+
+  /** Totais de um status; {@code amount} em centavos. */
+  public record Totals(long count, long amount) {
+  }
+
+  private static final class Adders {
+    final LongAdder count = new LongAdder();
+    final LongAdder amount = new LongAdder();
+
+    void add(long count, long amount) {
+      this.count.add(count);
+      this.amount.add(amount);
+    }
+
+    Totals totals() {
+      return new Totals(count.sum(), amount.sum());
+    }
+  }
+
+  private final OrderRepository repo;
+  private final ArchivedOrderRepository archive;
+  private final Map<OrderStatus, Adders> byStatus = new EnumMap<>(OrderStatus.class);
+  // Incrementado a cada evento aplicado; a reconciliação descarta rodadas com eventos no meio.
+  private final AtomicLong applied = new AtomicLong();
+  // Lock e não synchronized: rebuild/reconcile consultam o banco e, em thread virtual, um monitor
+  // preso durante o JDBC prenderia também a thread carrier.
+  private final ReentrantLock lock = new ReentrantLock();
+  private Map<OrderStatus, Totals> suspectedDrift;
+  private Counter drift;
+
+  public OrderStatusSummary(OrderRepository repo, ArchivedOrderRepository archive) {
+    this.repo = repo;
+    this.archive = archive;
+    for (OrderStatus status : OrderStatus.values()) {
+      byStatus.put(status, new Adders());
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    byStatus.forEach((status, adders) -> Gauge.builder("orders.status", adders.count, LongAdder::sum)
+        .description("Pedidos por status")
+        .tag("status", status.name())
+        .register(registry));
+    drift = Counter.builder("orders.summary.drift")
+        .description("Correções do resumo em memória após divergir do banco")
+        .register(registry);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(OrderStatusChangedEvent event) {
+    if (event.from() != null) {
+      byStatus.get(event.from()).add(-1, -event.fromTotal());
+    }
+    if (event.to() != null) {
+      byStatus.get(event.to()).add(1, event.toTotal());
+    }
+    applied.incrementAndGet();
+  }
+
+  /** Fotografia atual; count e amount de um status podem estar um evento defasados entre si. */
+  public Map<OrderStatus, Totals> snapshot() {
+    Map<OrderStatus, Totals> out = new EnumMap<>(OrderStatus.class);
+    byStatus.forEach((status, adders) -> out.put(status, adders.totals()));
+    return out;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    lock.lock();
+    try {
+      Map<OrderStatus, Totals> db = load();
+      byStatus.forEach((status, adders) -> {
+        Totals current = adders.totals();
+        Totals target = db.get(status);
+        adders.add(target.count() - current.count(), target.amount() - current.amount());
+      });
+      suspectedDrift = null;
+      log.info("Resumo de pedidos carregado: {}", db);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${orders.summary.reconcile-interval-ms:60000}",
+      initialDelayString = "${orders.summary.reconcile-interval-ms:60000}")
+  public void reconcile() {
+    lock.lock();
+    try {
+      long before = applied.get();
+      Map<OrderStatus, Totals> db = load();
+      Map<OrderStatus, Totals> memory = snapshot();
+      if (applied.get() != before) {
+        return;
+      }
+      Map<OrderStatus, Totals> delta = new EnumMap<>(OrderStatus.class);
+      db.forEach((status, totals) -> {
+        Totals mem = memory.get(status);
+        if (!totals.equals(mem)) {
+          delta.put(status, new Totals(totals.count() - mem.count(), totals.amount() - mem.amount()));
+        }
+      });
+      if (delta.isEmpty() || !delta.equals(suspectedDrift)) {
+        // Pode ser só um commit cujo evento ainda não foi aplicado; confirma na próxima rodada.
+        suspectedDrift = delta.isEmpty() ? null : delta;
+        return;
+      }
+      log.warn("Resumo de pedidos divergiu do banco; corrigindo {}", delta);
+      delta.forEach((status, d) -> byStatus.get(status).add(d.count(), d.amount()));
+      if (drift != null) {
+        drift.increment();
+      }
+      suspectedDrift = null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Map<OrderStatus, Totals> load() {
+    Map<OrderStatus, Totals> db = new EnumMap<>(OrderStatus.class);
+    for (OrderStatus status : OrderStatus.values()) {
+      db.put(status, new Totals(0, 0));
+    }
+    // Quente + arquivo: arquivar move o pedido de tabela sem evento, o resumo não muda.
+    Stream.concat(repo.summarizeByStatus().stream(), archive.summarizeByStatus().stream()).forEach(row -> {
+      Totals t = db.get(row.getStatus());
+      db.put(row.getStatus(), new Totals(t.count() + row.getCount(), t.amount() + row.getAmount()));
+    });
+    return db;
+  }
+}
@@ -0,0 +1,133 @@
+package com.example.challenge.api;
+
+import com.example.challenge.domain.IdempotencyRecord;
+import com.example.challenge.repo.IdempotencyRecordRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+
+	private IdempotencyRecordRepository repo;
+	private IdempotencyFilter filter;
+	private AtomicInteger calls;
+	private FilterChain chain;
+
+	@BeforeEach
+	void setup() {
+		repo = mock(IdempotencyRecordRepository.class);
+		when(repo.findById(anyString())).thenReturn(Optional.empty());
+		filter = new IdempotencyFilter(new IdempotencyStore(repo, new IdempotencyProperties()));
+		calls = new AtomicInteger();
+		chain = (req, res) -> {
+			calls.incrementAndGet();
+			HttpServletResponse http = (HttpServletResponse) res;
+			http.setStatus(201);
+			http.setHeader("Location", "/api/orders/abc");
+			http.setContentType("application/json");
+			http.getOutputStream().write("{\"id\":\"abc\"}".getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	@Test
+	void replaysOriginalResponse_withoutCallingController() throws Exception {
+		MockHttpServletResponse first = perform("POST", "/api/orders", "key-1");
+		MockHttpServletResponse second = perform("POST", "/api/orders", "key-1");
+
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(second.getStatus()).isEqualTo(201);
+		assertThat(second.getHeader("Location")).isEqualTo("/api/orders/abc");
+		assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+		verify(repo, times(1)).save(any());
+	}
+
+	@Test
+	void rejectsKeyReusedOnAnotherEndpoint() throws Exception {
+		perform("POST", "/api/orders", "key-2");
+		MockHttpServletResponse other = perform("POST", "/api/orders/abc/pay", "key-2");
+
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(other.getStatus()).isEqualTo(422);
+	}
+
+	@Test
+	void replaysResponseSavedBetweenLookupAndReservation() throws Exception {
+		IdempotencyStore store = new IdempotencyStore(repo, new IdempotencyProperties()) {
+			@Override
+			public boolean begin(String key) {
+				// O request concorrente termina e grava depois do primeiro find deste.
+				IdempotencyRecord record = new IdempotencyRecord();
+				record.setKey(key);
+				record.setScope("POST /api/orders");
+				record.setStatus(201);
+				record.setLocation("/api/orders/other");
+				save(record);
+				return super.begin(key);
+			}
+		};
+		filter = new IdempotencyFilter(store);
+
+		MockHttpServletResponse response = perform("POST", "/api/orders", "key-3");
+
+		assertThat(calls.get()).isZero();
+		assertThat(response.getStatus()).isEqualTo(201);
+		assertThat(response.getHeader("Location")).isEqualTo("/api/orders/other");
+		assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+	}
+
+	@Test
+	void retryAfterTooManyRequests_reachesController() throws Exception {
+		FilterChain accepted = chain;
+		chain = (req, res) -> {
+			if (calls.get() > 0) {
+				accepted.doFilter(req, res);
+				return;
+			}
+			calls.incrementAndGet();
+			HttpServletResponse http = (HttpServletResponse) res;
+			http.setStatus(429);
+			http.setHeader("Retry-After", "1");
+		};
+
+		MockHttpServletResponse refused = perform("POST", "/api/orders/abc/pay", "key-4");
+		MockHttpServletResponse retried = perform("POST", "/api/orders/abc/pay", "key-4");
+
+		assertThat(refused.getStatus()).isEqualTo(429);
+		assertThat(calls.get()).isEqualTo(2);
+		assertThat(retried.getStatus()).isEqualTo(201);
+		assertThat(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+		verify(repo, times(1)).save(any());
+	}
+
+	@Test
+	void ignoresRequestsWithoutKey() throws Exception {
+		perform("POST", "/api/orders", null);
+		perform("POST", "/api/orders", null);
+
+		assertThat(calls.get()).isEqualTo(2);
+		verify(repo, never()).save(any());
+	}
+
+	private MockHttpServletResponse perform(String method, String uri, String key) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		if (key != null) {
+			request.addHeader(IdempotencyFilter.HEADER, key);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+}
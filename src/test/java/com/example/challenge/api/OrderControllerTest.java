@@ -1,36 +1,89 @@
 // `src/test/java/com/example/challenge/api/OrderControllerTest.java`
 package com.example.challenge.api;
 
+import com.example.challenge.api.dto.PayBatchRequest;
 import com.example.challenge.domain.Order;
 import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.integration.PaymentAlreadyRequestedException;
+import com.example.challenge.integration.PaymentAttempts;
+import com.example.challenge.integration.PaymentConcurrencyLimiter;
+import com.example.challenge.integration.PaymentDispatcher;
+import com.example.challenge.integration.PaymentOutbox;
+import com.example.challenge.integration.PaymentProperties;
+import com.example.challenge.integration.PaymentRoute;
+import com.example.challenge.repo.OrderState;
+import com.example.challenge.repo.OrderVersion;
+import com.example.challenge.service.OrderImporter;
 import com.example.challenge.service.OrderService;
+import com.example.challenge.service.OrderStatusChangedEvent;
+import com.example.challenge.service.OrderStatusSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.apache.camel.CamelExecutionException;
 import org.apache.camel.ProducerTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OrderController.class)
+@Import({ PaymentDispatcher.class, PaymentAttempts.class, PaymentProperties.class, OrderResponseCache.class,
+		OrderCacheProperties.class, OrderEventStream.class, OrderEventsProperties.class, SimpleMeterRegistry.class })
 class OrderControllerTest {
 
 	@Autowired
 	private MockMvc mvc;
 
+	@Autowired
+	private PaymentProperties props;
+
 	@MockBean
 	private OrderService service;
 
 	@MockBean
 	private ProducerTemplate template;
 
+	@MockBean
+	private PaymentOutbox outbox;
+
+	@MockBean
+	private OrderStatusSummary summary;
+
+	@MockBean
+	private OrderImporter importer;
+
+	@MockBean
+	private PaymentConcurrencyLimiter limiter;
+
+	@Test
+	void summary_returnsCountsAndTotalsPerStatus() throws Exception {
+		Map<OrderStatus, OrderStatusSummary.Totals> snapshot = new EnumMap<>(OrderStatus.class);
+		snapshot.put(OrderStatus.NEW, new OrderStatusSummary.Totals(2, 1050));
+		snapshot.put(OrderStatus.PAID, new OrderStatusSummary.Totals(1, 20000));
+		when(summary.snapshot()).thenReturn(snapshot);
+
+		mvc.perform(get("/api/orders/summary")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(3))
+				.andExpect(jsonPath("$.total").value(210.5))
+				.andExpect(jsonPath("$.byStatus.NEW.total").value(10.5))
+				.andExpect(jsonPath("$.byStatus.PAID.count").value(1));
+		verify(service, never()).get(anyString());
+	}
+
 	@Test
 	void get_returnsOrder_whenFound() throws Exception {
 		Order order = new Order();
@@ -42,6 +95,53 @@ class OrderControllerTest {
 		mvc.perform(get("/api/orders/" + id)).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(id));
 	}
 
+	@Autowired
+	private OrderResponseCache responses;
+
+	@Test
+	void get_servesRepeatedPollsFromCache_untilOrderChanges() throws Exception {
+		Order order = new Order();
+		String id = order.getId();
+		order.setStatus(OrderStatus.NEW);
+		when(service.get(id)).thenReturn(Optional.of(order));
+
+		mvc.perform(get("/api/orders/" + id)).andExpect(jsonPath("$.status").value("NEW"));
+		mvc.perform(get("/api/orders/" + id)).andExpect(jsonPath("$.status").value("NEW"));
+		verify(service, times(1)).get(id);
+
+		order.setStatus(OrderStatus.PAID);
+		responses.on(new OrderStatusChangedEvent(id, OrderStatus.NEW, 0, OrderStatus.PAID, 0));
+
+		mvc.perform(get("/api/orders/" + id)).andExpect(jsonPath("$.status").value("PAID"));
+		verify(service, times(2)).get(id);
+	}
+
+	@Autowired
+	private OrderEventStream events;
+
+	@Test
+	void events_streamsSnapshotThenTransition_andEndsOnFinalStatus() throws Exception {
+		String id = "o-events";
+		when(service.state(id)).thenReturn(Optional.of(new OrderState(id, OrderStatus.NEW, 1050)));
+
+		MvcResult result = mvc.perform(get("/api/orders/" + id + "/events"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		events.on(new OrderStatusChangedEvent(id, OrderStatus.NEW, 1050, OrderStatus.PAID, 1050));
+
+		mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+		String body = result.getResponse().getContentAsString();
+		assertThat(body).containsSubsequence("event:snapshot", "\"status\":\"NEW\"", "event:change",
+				"\"previousStatus\":\"NEW\",\"status\":\"PAID\",\"total\":10.50");
+	}
+
+	@Test
+	void events_returnsNotFound_whenOrderMissing() throws Exception {
+		when(service.state("missing")).thenReturn(Optional.empty());
+
+		mvc.perform(get("/api/orders/missing/events")).andExpect(status().isNotFound());
+	}
+
 	@Test
 	void get_returnsNotFound_whenMissing() throws Exception {
 		when(service.get("1")).thenReturn(Optional.empty());
@@ -51,25 +151,154 @@ class OrderControllerTest {
 
 	@Test
 	void list_returnsNoContent_whenEmpty() throws Exception {
-		when(service.list(any())).thenReturn(Collections.emptyList());
+		when(service.pageVersions(any(), any(), anyInt())).thenReturn(Collections.emptyList());
 
 		mvc.perform(get("/api/orders")).andExpect(status().isNoContent());
 	}
 
+	@Test
+	void list_returnsNextCursor_whenPageIsFull() throws Exception {
+		Order first = new Order();
+		Order second = new Order();
+		List<OrderVersion> versions = List.of(OrderVersion.of(first), OrderVersion.of(second));
+		when(service.pageVersions(eq(Optional.of(OrderStatus.NEW)), eq("abc"), eq(2))).thenReturn(versions);
+		when(service.load(List.of(first.getId(), second.getId()))).thenReturn(List.of(first, second));
+
+		mvc.perform(get("/api/orders").param("status", "NEW").param("after", "abc").param("limit", "2"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2))
+				.andExpect(header().string("X-Next-Cursor", second.getId()))
+				.andExpect(header().string("Link", "</api/orders?after=" + second.getId() + "&limit=2&status=NEW>; rel=\"next\""))
+				.andExpect(header().string("ETag", OrderETags.page(versions)));
+	}
+
+	@Test
+	void list_returnsNotModified_withoutLoadingOrders_whenPageUnchanged() throws Exception {
+		List<OrderVersion> versions = List.of(new OrderVersion("a", 3), new OrderVersion("b", 0));
+		when(service.pageVersions(any(), any(), anyInt())).thenReturn(versions);
+
+		mvc.perform(get("/api/orders").header("If-None-Match", OrderETags.page(versions)))
+				.andExpect(status().isNotModified());
+		verify(service, never()).load(any());
+
+		List<OrderVersion> changed = List.of(new OrderVersion("a", 4), new OrderVersion("b", 0));
+		assertThat(OrderETags.page(changed)).isNotEqualTo(OrderETags.page(versions)).startsWith("W/");
+	}
+
+	@Test
+	void get_returnsNotModified_fromVersionOnly_whenETagMatches() throws Exception {
+		when(service.version("o1")).thenReturn(Optional.of(7L));
+
+		mvc.perform(get("/api/orders/o1").header("If-None-Match", "\"v7\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", "\"v7\""));
+		verify(service, never()).get(anyString());
+
+		Order order = new Order();
+		when(service.version(order.getId())).thenReturn(Optional.of(0L));
+		when(service.get(order.getId())).thenReturn(Optional.of(order));
+		mvc.perform(get("/api/orders/" + order.getId()).header("If-None-Match", "\"v5\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"v0\""));
+	}
+
+	@Test
+	void payBatch_reportsUnknownIdsAsNotFound() throws Exception {
+		Order paid = new Order();
+		paid.setStatus(OrderStatus.PAID);
+		when(service.findAllById(List.of(paid.getId(), "missing"))).thenReturn(List.of(paid));
+
+		mvc.perform(post("/api/orders/pay-batch").contentType("application/json")
+				.content("{\"orderIds\":[\"" + paid.getId() + "\",\"missing\"]}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.requested").value(2))
+				.andExpect(jsonPath("$.skipped").value(1))
+				.andExpect(jsonPath("$.notFound").value(1))
+				.andExpect(jsonPath("$.results[1].orderId").value("missing"))
+				.andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+		verifyNoInteractions(template);
+	}
+
+	@Test
+	void payBatch_returnsBadRequest_forEmptyOrOversizedOrderIds() throws Exception {
+		String tooMany = String.join(",", Collections.nCopies(PayBatchRequest.MAX_ORDER_IDS + 1, "\"x\""));
+
+		mvc.perform(post("/api/orders/pay-batch").contentType("application/json").content("{\"orderIds\":[]}"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(post("/api/orders/pay-batch").contentType("application/json").content("{\"orderIds\":[null]}"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(post("/api/orders/pay-batch").contentType("application/json")
+				.content("{\"orderIds\":[" + tooMany + "]}"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(post("/api/orders/pay-batch").contentType("application/json").content("{}"))
+				.andExpect(status().isBadRequest());
+		verifyNoInteractions(service);
+	}
+
 	@Test
 	void pay_accepts_and_sendsCamelMessage_whenOrderIsNew() throws Exception {
 		Order order = new Order();
 		String id = order.getId();
 		order.setStatus(OrderStatus.NEW);
-		order.setTotal(150.0);
+		order.setTotal(15000);
+
+		when(service.get(id)).thenReturn(Optional.of(order));
+		doNothing().when(template).sendBodyAndHeaders(eq(PaymentRoute.SEDA_PAY), isNull(), anyMap());
+
+		mvc.perform(post("/api/orders/" + id + "/pay")).andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/api/orders/" + id + "/payment"))
+				.andExpect(jsonPath("$.state").value("QUEUED"));
+
+		verify(template).sendBodyAndHeaders(eq(PaymentRoute.SEDA_PAY), isNull(),
+				argThat(map -> id.equals(map.get("orderId")) && Long.valueOf(15000).equals(map.get("amount"))));
+
+		mvc.perform(get("/api/orders/" + id + "/payment")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.orderId").value(id));
+	}
+
+	@Test
+	void pay_returnsServiceUnavailable_whenQueueIsFull() throws Exception {
+		Order order = new Order();
+		String id = order.getId();
+		order.setStatus(OrderStatus.NEW);
+
+		when(service.get(id)).thenReturn(Optional.of(order));
+		doThrow(new CamelExecutionException("Queue full", null)).when(template)
+				.sendBodyAndHeaders(eq(PaymentRoute.SEDA_PAY), isNull(), anyMap());
+
+		mvc.perform(post("/api/orders/" + id + "/pay")).andExpect(status().isServiceUnavailable());
+		// Nada foi enfileirado: o pedido não aparece como pagamento que falhou.
+		mvc.perform(get("/api/orders/" + id + "/payment")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void pay_returnsTooManyRequests_withoutQueueing_whenProviderIsAtItsLimit() throws Exception {
+		Order order = new Order();
+		String id = order.getId();
+		order.setStatus(OrderStatus.NEW);
 
 		when(service.get(id)).thenReturn(Optional.of(order));
-		doNothing().when(template).sendBodyAndHeaders(eq("direct:payOrder"), isNull(), anyMap());
+		when(limiter.saturated()).thenReturn(true);
 
-		mvc.perform(post("/api/orders/" + id + "/pay")).andExpect(status().isAccepted());
+		mvc.perform(post("/api/orders/" + id + "/pay")).andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "1"));
+		verify(template, never()).sendBodyAndHeaders(anyString(), any(), anyMap());
+	}
 
-		verify(template).sendBodyAndHeaders(eq("direct:payOrder"), isNull(),
-				argThat(map -> id.equals(map.get("orderId")) && Double.valueOf(map.get("amount").toString()) == 150.0));
+	@Test
+	void pay_returnsConflict_whenOutboxAlreadyHasAnIntent() throws Exception {
+		Order order = new Order();
+		String id = order.getId();
+		order.setStatus(OrderStatus.NEW);
+
+		when(service.get(id)).thenReturn(Optional.of(order));
+		when(outbox.enqueue(id, 0)).thenThrow(new PaymentAlreadyRequestedException("já solicitado"));
+		props.getDispatch().setMode(PaymentProperties.DispatchMode.OUTBOX);
+		try {
+			mvc.perform(post("/api/orders/" + id + "/pay")).andExpect(status().isConflict())
+					.andExpect(header().string("Error", "Payment already requested for this order"));
+		} finally {
+			props.getDispatch().setMode(PaymentProperties.DispatchMode.ASYNC);
+		}
 	}
 
 	@Test
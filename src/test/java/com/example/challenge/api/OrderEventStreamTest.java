@@ -0,0 +1,164 @@
+package com.example.challenge.api;
+
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.service.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderEventStreamTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final ThreadPoolExecutor senders = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>());
+
+	/** Stream cuja única thread de envio está presa: simula um assinante que não lê. */
+	private OrderEventStream stalled(OrderEventsProperties props) {
+		senders.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		return new OrderEventStream(props, registry, senders, SseEmitter::new);
+	}
+
+	private static OrderStatusChangedEvent paid(String id) {
+		return new OrderStatusChangedEvent(id, OrderStatus.NEW, 100, OrderStatus.PAID, 100);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		senders.shutdownNow();
+	}
+
+	@Test
+	void slowSubscriber_dropsOldest() {
+		OrderEventsProperties props = new OrderEventsProperties();
+		props.setBufferSize(2);
+		OrderEventStream stream = stalled(props);
+		stream.all(Set.of());
+
+		for (int i = 0; i < 5; i++) {
+			stream.on(paid("o-" + i));
+		}
+
+		assertThat(registry.counter("orders.events.dropped", "policy", "drop_oldest").count()).isEqualTo(3);
+		assertThat(stream.subscribers()).isEqualTo(1);
+	}
+
+	@Test
+	void slowSubscriber_isClosed_andFilteredEventsDoNotCount() {
+		OrderEventsProperties props = new OrderEventsProperties();
+		props.setBufferSize(1);
+		props.setOverflow(OrderEventsProperties.Overflow.CLOSE);
+		OrderEventStream stream = stalled(props);
+		stream.all(Set.of(OrderStatus.PAID));
+
+		stream.on(new OrderStatusChangedEvent("a", null, 0, OrderStatus.NEW, 100));
+		stream.on(new OrderStatusChangedEvent("b", null, 0, OrderStatus.NEW, 100));
+		stream.on(paid("a"));
+		assertThat(stream.subscribers()).isEqualTo(1);
+
+		stream.on(paid("b"));
+		assertThat(stream.subscribers()).isZero();
+		assertThat(registry.counter("orders.events.dropped", "policy", "close").count()).isEqualTo(1);
+	}
+
+	@Test
+	void subscriberThatStopsReading_isClosed_andOthersStillReceive() throws Exception {
+		OrderEventsProperties props = new OrderEventsProperties();
+		props.setSendTimeout(Duration.ofMillis(50));
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch received = new CountDownLatch(1);
+		AtomicReference<Throwable> completedWith = new AtomicReference<>();
+		// Primeiro assinante: a escrita fica presa como num socket com a janela TCP cheia.
+		SseEmitter blocked = new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Escrita interrompida", e);
+				}
+			}
+
+			@Override
+			public void completeWithError(Throwable ex) {
+				completedWith.set(ex);
+				super.completeWithError(ex);
+			}
+		};
+		SseEmitter reading = new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) {
+				received.countDown();
+			}
+		};
+		SseEmitter[] emitters = {blocked, reading};
+		int[] next = {0};
+		OrderEventStream stream = new OrderEventStream(props, registry, senders, timeout -> emitters[next[0]++]);
+		stream.all(Set.of());
+		stream.all(Set.of());
+
+		stream.on(paid("a"));
+		assertThat(writing.await(2, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(100);
+		stream.checkSends();
+
+		assertThat(received.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(stream.subscribers()).isEqualTo(1);
+		assertThat(registry.counter("orders.events.dropped", "policy", "send_timeout").count()).isEqualTo(1);
+		assertThat(completedWith.get()).isInstanceOf(TimeoutException.class);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (senders.getCorePoolSize() > 1 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(senders.getCorePoolSize()).isEqualTo(1);
+	}
+
+	@Test
+	void failingLoader_releasesTheSubscriberSlot() {
+		OrderEventsProperties props = new OrderEventsProperties();
+		props.setMaxSubscribers(1);
+		OrderEventStream stream = stalled(props);
+
+		assertThrows(IllegalStateException.class, () -> stream.order("a", id -> {
+			throw new IllegalStateException("banco fora");
+		}));
+
+		assertThat(stream.subscribers()).isZero();
+		stream.all(Set.of());
+		assertThat(stream.subscribers()).isEqualTo(1);
+	}
+
+	@Test
+	void subscribersAreLimited() {
+		OrderEventsProperties props = new OrderEventsProperties();
+		props.setMaxSubscribers(1);
+		OrderEventStream stream = stalled(props);
+		stream.all(Set.of());
+
+		assertThrows(EventStreamFullException.class, () -> stream.all(Set.of()));
+		assertThat(registry.get("orders.events.subscribers").gauge().value()).isEqualTo(1);
+	}
+}
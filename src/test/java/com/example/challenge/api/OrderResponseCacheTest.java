@@ -0,0 +1,86 @@
+package com.example.challenge.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderResponseCacheTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private OrderResponseCache cache(int maxEntries, Duration ttl) {
+		OrderCacheProperties props = new OrderCacheProperties();
+		props.setMaxEntries(maxEntries);
+		props.setTtl(ttl);
+		return new OrderResponseCache(props, registry);
+	}
+
+	private Optional<OrderResponseCache.Response> load(String id) {
+		loads.incrementAndGet();
+		return Optional.of(new OrderResponseCache.Response(id.getBytes(), "\"v0\""));
+	}
+
+	@Test
+	void readStartedBeforeInvalidation_isNotCached() {
+		OrderResponseCache cache = cache(10, Duration.ofMinutes(1));
+
+		// A leitura vê o pedido antigo e, antes de gravar no cache, o pedido muda.
+		cache.get("a", id -> {
+			cache.invalidate(id);
+			return load(id);
+		});
+		cache.get("a", this::load);
+		cache.get("a", this::load);
+
+		assertThat(loads.get()).isEqualTo(2);
+		assertThat(registry.counter("orders.cache.requests", "result", "hit").count()).isEqualTo(1);
+		assertThat(registry.get("orders.cache.hit.ratio").gauge().value()).isEqualTo(1.0 / 3);
+	}
+
+	@Test
+	void boundedBySize_andTtl() {
+		OrderResponseCache bounded = cache(2, Duration.ofMinutes(1));
+		bounded.get("a", this::load);
+		bounded.get("b", this::load);
+		bounded.get("c", this::load);
+		assertThat(registry.counter("orders.cache.evictions", "cause", "size").count()).isEqualTo(1);
+
+		OrderResponseCache expiring = cache(10, Duration.ZERO);
+		expiring.get("x", this::load);
+		expiring.get("x", this::load);
+		assertThat(registry.counter("orders.cache.evictions", "cause", "expired").count()).isEqualTo(1);
+		assertThat(registry.get("orders.cache.requests").tag("result", "miss").counter().count()).isEqualTo(5);
+	}
+
+	@Test
+	void full_evictsLeastRecentlyUsed() {
+		OrderResponseCache cache = cache(2, Duration.ofMinutes(1));
+		cache.get("a", this::load);
+		cache.get("b", this::load);
+		cache.get("a", this::load);
+		cache.get("c", this::load);
+
+		cache.get("a", this::load);
+		assertThat(loads.get()).isEqualTo(3);
+		cache.get("b", this::load);
+		assertThat(loads.get()).isEqualTo(4);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void missingOrders_areNotCached() {
+		OrderResponseCache cache = cache(10, Duration.ofMinutes(1));
+		cache.get("gone", id -> {
+			loads.incrementAndGet();
+			return Optional.empty();
+		});
+		assertThat(cache.get("gone", this::load)).isPresent();
+		assertThat(loads.get()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.challenge.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCatalogTest {
+
+	private HttpServer server;
+	private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private SimpleMeterRegistry registry;
+	private ProductCatalog catalog;
+	private CatalogProperties props;
+
+	@BeforeEach
+	void setup() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/products/", exchange -> {
+			String sku = exchange.getRequestURI().getPath().substring("/products/".length());
+			calls.computeIfAbsent(sku, k -> new AtomicInteger()).incrementAndGet();
+			if (sku.startsWith("slow")) {
+				try {
+					release.await(2, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (sku.startsWith("missing")) {
+				exchange.sendResponseHeaders(404, -1);
+				exchange.close();
+				return;
+			}
+			byte[] body = ("{\"id\":\"" + sku + "\",\"title\":\"Produto " + sku + "\",\"price\":9.5,\"stock\":3}")
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+
+		CatalogProperties props = new CatalogProperties();
+		props.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+		props.getCatalog().setRefreshAhead(Duration.ZERO);
+		this.props = props;
+		catalog = catalog(props);
+	}
+
+	private ProductCatalog catalog(CatalogProperties props) {
+		registry = new SimpleMeterRegistry();
+		return new ProductCatalog(props, new ObjectMapper(), registry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		catalog.shutdown();
+		server.stop(0);
+	}
+
+	@Test
+	void concurrentMisses_shareSingleFetch() throws Exception {
+		var first = catalog.lookup("slow-1");
+		var second = catalog.lookup("slow-1");
+		release.countDown();
+
+		assertThat(first.get(2, TimeUnit.SECONDS)).isPresent();
+		assertThat(second).isSameAs(first);
+		assertThat(calls.get("slow-1").get()).isEqualTo(1);
+		assertThat(registry.counter("catalog.cache.requests", "result", "coalesced").count()).isEqualTo(1);
+	}
+
+	@Test
+	void resolve_cachesProductsAcrossCalls() {
+		Map<String, Product> products = catalog.resolve(List.of("a", "b", "c"));
+		catalog.resolve(List.of("a", "b"));
+
+		assertThat(products).containsOnlyKeys("a", "b", "c");
+		assertThat(products.get("a").getPrice()).isEqualTo(950);
+		assertThat(registry.counter("catalog.cache.requests", "result", "hit").count()).isEqualTo(2);
+	}
+
+	@Test
+	void unknownSku_isRejectedAndNegativelyCached() {
+		UnknownSkuException ex = assertThrows(UnknownSkuException.class,
+				() -> catalog.resolve(List.of("a", "missing-1")));
+		assertThrows(UnknownSkuException.class, () -> catalog.resolve(List.of("missing-1")));
+
+		assertThat(ex.getMessage()).contains("missing-1");
+		assertThat(calls.get("missing-1").get()).isEqualTo(1);
+		assertThat(registry.counter("catalog.cache.requests", "result", "negative_hit").count()).isEqualTo(1);
+	}
+
+	@Test
+	void full_evictsLeastRecentlyUsed_butNeverAnEntryStillLoading() throws Exception {
+		catalog.shutdown();
+		props.getCatalog().setMaxEntries(2);
+		catalog = catalog(props);
+
+		var loading = catalog.lookup("slow-2");
+		catalog.resolve(List.of("a"));
+		catalog.resolve(List.of("b"));
+		assertThat(catalog.lookup("slow-2")).isSameAs(loading);
+		release.countDown();
+		loading.get(2, TimeUnit.SECONDS);
+
+		assertThat(calls.get("slow-2").get()).isEqualTo(1);
+
+		catalog.resolve(List.of("b"));
+		catalog.resolve(List.of("c"));
+		catalog.resolve(List.of("b"));
+		catalog.resolve(List.of("d"));
+		catalog.resolve(List.of("b"));
+
+		// b foi usado depois de c: c sai quando d entra e b continua em cache.
+		assertThat(calls.get("b").get()).isEqualTo(1);
+		assertThat(catalog.size()).isEqualTo(2);
+		catalog.resolve(List.of("c"));
+		assertThat(calls.get("c").get()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.challenge.domain;
+
+import com.example.challenge.api.dto.NewOrderRequest;
+import com.example.challenge.api.dto.OrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void parse_readsDecimalsExactly() {
+		assertThat(Money.parse("49.90")).isEqualTo(4990);
+		assertThat(Money.parse("49.9")).isEqualTo(4990);
+		assertThat(Money.parse("12")).isEqualTo(1200);
+		assertThat(Money.parse("0.10")).isEqualTo(10);
+		assertThat(Money.parse("-3.05")).isEqualTo(-305);
+		assertThat(Money.parse("1.500")).isEqualTo(150);
+		assertThrows(IllegalArgumentException.class, () -> Money.parse("1.005"));
+		assertThrows(IllegalArgumentException.class, () -> Money.parse("1e3"));
+		assertThrows(IllegalArgumentException.class, () -> Money.parse("."));
+	}
+
+	@Test
+	void format_writesTwoDecimals() {
+		assertThat(Money.format(4990)).isEqualTo("49.90");
+		assertThat(Money.format(5)).isEqualTo("0.05");
+		assertThat(Money.format(-305)).isEqualTo("-3.05");
+	}
+
+	@Test
+	void json_roundTripsWithoutLosingCents() throws Exception {
+		NewOrderRequest request = mapper.readValue(
+				"{\"customerId\":\"c1\",\"items\":[{\"sku\":\"A\",\"qty\":3,\"unitPrice\":0.1},{\"sku\":\"B\",\"qty\":1,\"unitPrice\":\"19.99\"}]}",
+				NewOrderRequest.class);
+		assertThat(request.getItems().get(0).getUnitPrice()).isEqualTo(10);
+		assertThat(request.getItems().get(1).getUnitPrice()).isEqualTo(1999);
+
+		OrderResponse response = new OrderResponse();
+		response.setTotal(2029);
+		assertThat(mapper.writeValueAsString(response)).contains("\"total\":20.29");
+	}
+
+	@Test
+	void json_rejectsSubCentAmounts() {
+		assertThrows(InvalidFormatException.class, () -> mapper.readValue(
+				"{\"customerId\":\"c1\",\"items\":[{\"sku\":\"A\",\"qty\":1,\"unitPrice\":0.001}]}", NewOrderRequest.class));
+	}
+
+}
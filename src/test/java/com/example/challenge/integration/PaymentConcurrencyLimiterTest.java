@@ -0,0 +1,120 @@
+package com.example.challenge.integration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentConcurrencyLimiterTest {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private PaymentProperties props;
+  private SimpleMeterRegistry registry;
+
+  @BeforeEach
+  void setup() {
+    props = new PaymentProperties();
+    props.getLimiter().setInitialLimit(4);
+    props.getLimiter().setMaxLimit(10);
+    props.getLimiter().setLatencySlack(Duration.ZERO);
+    registry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void limit_grows_while_latency_stays_at_baseline_and_shrinks_once_per_inflated_round_trip() {
+    PaymentConcurrencyLimiter limiter = new PaymentConcurrencyLimiter(props, registry);
+
+    for (int round = 0; round < 20; round++) {
+      int slots = (int) limiter.limit();
+      for (int i = 0; i < slots; i++) {
+        limiter.acquire();
+      }
+      for (int i = 0; i < slots; i++) {
+        limiter.release(10 * MS, false);
+      }
+    }
+    double grown = limiter.limit();
+    assertThat(grown).isGreaterThan(8).isLessThanOrEqualTo(10);
+    assertThat(registry.get("payment.limiter.limit").gauge().value()).isEqualTo(grown);
+
+    // Uma rajada de respostas 10x mais lentas conta como um único sinal de congestionamento.
+    for (int i = 0; i < 5; i++) {
+      limiter.acquire();
+    }
+    for (int i = 0; i < 5; i++) {
+      limiter.release(100_000 * MS, false);
+    }
+    assertThat(limiter.limit()).isEqualTo(grown * 0.9);
+    assertThat(limiter.inFlight()).isZero();
+  }
+
+  @Test
+  void timeouts_shrink_the_limit_down_to_the_minimum() {
+    props.getLimiter().setInitialLimit(2);
+    props.getLimiter().setMinLimit(1);
+    PaymentConcurrencyLimiter limiter = new PaymentConcurrencyLimiter(props, registry);
+
+    for (int i = 0; i < 50; i++) {
+      limiter.acquire();
+      limiter.release(0, true);
+    }
+
+    assertThat(limiter.limit()).isEqualTo(1);
+  }
+
+  @Test
+  void excess_calls_wait_for_a_slot_and_dispatch_is_refused_when_too_many_are_waiting() throws Exception {
+    props.getLimiter().setInitialLimit(1);
+    props.getLimiter().setMaxQueue(1);
+    props.getLimiter().setMaxWait(Duration.ofSeconds(5));
+    PaymentConcurrencyLimiter limiter = new PaymentConcurrencyLimiter(props, registry);
+
+    limiter.acquire();
+    CompletableFuture<Void> queued = CompletableFuture.runAsync(limiter::acquire);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (limiter.waiting() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(limiter.saturated()).isTrue();
+
+    limiter.release(MS, false);
+    queued.get(5, TimeUnit.SECONDS);
+    assertThat(limiter.saturated()).isFalse();
+    assertThat(limiter.inFlight()).isEqualTo(1);
+    assertThat(registry.counter("payment.limiter.rejected", "stage", "dispatch").count()).isEqualTo(1);
+  }
+
+  @Test
+  void dispatch_is_refused_once_queued_payments_reach_max_queue() {
+    props.getLimiter().setMaxQueue(3);
+    PaymentConcurrencyLimiter limiter = new PaymentConcurrencyLimiter(props, registry);
+    AtomicInteger queued = new AtomicInteger(2);
+    limiter.queued(queued::get);
+
+    assertThat(limiter.saturated()).isFalse();
+    queued.set(3);
+    assertThat(limiter.saturated()).isTrue();
+    assertThat(registry.counter("payment.limiter.rejected", "stage", "dispatch").count()).isEqualTo(1);
+  }
+
+  @Test
+  void call_is_rejected_after_max_wait_without_a_slot() {
+    props.getLimiter().setInitialLimit(1);
+    props.getLimiter().setMaxWait(Duration.ofMillis(50));
+    PaymentConcurrencyLimiter limiter = new PaymentConcurrencyLimiter(props, registry);
+
+    limiter.acquire();
+
+    assertThatThrownBy(limiter::acquire).isInstanceOf(PaymentLimitExceededException.class);
+    assertThat(limiter.waiting()).isZero();
+    assertThat(registry.counter("payment.limiter.rejected", "stage", "call").count()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,182 @@
+package com.example.challenge.integration;
+
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.domain.OutboxStatus;
+import com.example.challenge.domain.PaymentOutboxEntry;
+import com.example.challenge.repo.OrderRepository;
+import com.example.challenge.repo.PaymentOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({ PaymentOutbox.class, PaymentProperties.class })
+class PaymentOutboxTest {
+
+	@Autowired
+	private PaymentOutbox outbox;
+
+	@Autowired
+	private PaymentOutboxRepository repo;
+
+	@Autowired
+	private OrderRepository orders;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private PaymentProperties props;
+
+	private Order order;
+
+	@BeforeEach
+	void setup() {
+		props.getOutbox().setBatchSize(2);
+		props.getOutbox().setMaxAttempts(2);
+		props.getOutbox().setPollInterval(Duration.ZERO);
+		props.getOutbox().setClaimTimeout(Duration.ofMinutes(5));
+		order = newOrder(OrderStatus.NEW);
+	}
+
+	@Test
+	void enqueue_rejectsSecondIntentAndNonNewOrders() {
+		outbox.enqueue(order.getId(), order.getTotal());
+
+		assertThrows(PaymentAlreadyRequestedException.class, () -> outbox.enqueue(order.getId(), order.getTotal()));
+		Order paid = newOrder(OrderStatus.PAID);
+		assertThrows(IllegalStateException.class, () -> outbox.enqueue(paid.getId(), paid.getTotal()));
+		assertThat(repo.count()).isEqualTo(1);
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void enqueue_concurrentCallForTheSameOrder_waitsAndIsRejected() throws Exception {
+		// Sem a transação do teste: o pedido do setup já está commitado e cada enqueue tem a sua.
+		String id = order.getId();
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		CountDownLatch enqueued = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> first = pool.submit(() -> tx.executeWithoutResult(status -> {
+				outbox.enqueue(id, 100);
+				enqueued.countDown();
+				try {
+					commit.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			assertThat(enqueued.await(10, TimeUnit.SECONDS)).isTrue();
+			Future<PaymentOutboxEntry> second = pool.submit(() -> outbox.enqueue(id, 100));
+
+			Thread.sleep(200);
+			assertThat(second).isNotDone();
+			commit.countDown();
+			first.get(10, TimeUnit.SECONDS);
+
+			ExecutionException e = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+			assertThat(e.getCause()).isInstanceOf(PaymentAlreadyRequestedException.class);
+			assertThat(repo.count()).isEqualTo(1);
+		} finally {
+			commit.countDown();
+			pool.shutdownNow();
+			repo.deleteAll();
+			orders.deleteById(id);
+		}
+	}
+
+	@Test
+	void claim_takesBatchSizeOldestFirstAndNotTwice() {
+		PaymentOutboxEntry first = outbox.enqueue(order.getId(), 100);
+		PaymentOutboxEntry second = outbox.enqueue(newOrder(OrderStatus.NEW).getId(), 200);
+		outbox.enqueue(newOrder(OrderStatus.NEW).getId(), 300);
+
+		List<PaymentOutboxEntry> claimed = outbox.claim();
+
+		assertThat(claimed).extracting(PaymentOutboxEntry::getId).containsExactly(first.getId(), second.getId());
+		assertThat(repo.findById(first.getId()).orElseThrow().getStatus()).isEqualTo(OutboxStatus.CLAIMED);
+		assertThat(outbox.claim()).hasSize(1);
+		assertThat(outbox.claim()).isEmpty();
+	}
+
+	@Test
+	void staleClaims_areClaimedAgain() {
+		props.getOutbox().setClaimTimeout(Duration.ZERO);
+		outbox.enqueue(order.getId(), 100);
+		outbox.claim();
+
+		List<PaymentOutboxEntry> again = outbox.claim();
+
+		assertThat(again).hasSize(1);
+		assertThat(repo.findById(again.get(0).getId()).orElseThrow().getAttempts()).isEqualTo(2);
+	}
+
+	@Test
+	void complete_closesPaidAndRetriesErrorsUntilDead() {
+		String other = newOrder(OrderStatus.NEW).getId();
+		PaymentOutboxEntry paid = outbox.enqueue(order.getId(), 100);
+		PaymentOutboxEntry broken = outbox.enqueue(other, 200);
+
+		outbox.complete(outbox.claim(), result(order.getId(), PaymentBatchResult.Outcome.PAID, other,
+				PaymentBatchResult.Outcome.ERROR));
+		assertThat(repo.findById(paid.getId()).orElseThrow().getStatus()).isEqualTo(OutboxStatus.DONE);
+		assertThat(repo.findById(broken.getId()).orElseThrow().getStatus()).isEqualTo(OutboxStatus.PENDING);
+
+		outbox.complete(outbox.claim(), result(other, PaymentBatchResult.Outcome.ERROR, null, null));
+		PaymentOutboxEntry dead = repo.findById(broken.getId()).orElseThrow();
+		assertThat(dead.getStatus()).isEqualTo(OutboxStatus.DEAD);
+		assertThat(dead.getAttempts()).isEqualTo(2);
+	}
+
+	@Test
+	void complete_deferredDoesNotSpendAttempts() {
+		PaymentOutboxEntry entry = outbox.enqueue(order.getId(), 100);
+
+		outbox.complete(outbox.claim(), result(order.getId(), PaymentBatchResult.Outcome.DEFERRED, null, null));
+
+		PaymentOutboxEntry deferred = repo.findById(entry.getId()).orElseThrow();
+		assertThat(deferred.getStatus()).isEqualTo(OutboxStatus.PENDING);
+		assertThat(deferred.getAttempts()).isZero();
+		assertThat(outbox.claim()).isEmpty();
+	}
+
+	private Order newOrder(OrderStatus status) {
+		Order o = new Order();
+		o.setCustomerId("cust");
+		o.setStatus(status);
+		o.setTotal(100);
+		return orders.saveAndFlush(o);
+	}
+
+	private static PaymentBatchResult result(String id, PaymentBatchResult.Outcome outcome, String otherId,
+			PaymentBatchResult.Outcome otherOutcome) {
+		PaymentBatchResult result = new PaymentBatchResult();
+		result.add(id, outcome);
+		if (otherId != null) {
+			result.add(otherId, otherOutcome);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.example.challenge.integration;
+
+import com.example.challenge.domain.PaymentRetry;
+import com.example.challenge.repo.PaymentRetryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.camel.ProducerTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+// Sem transação de teste: a thread do agendador precisa enxergar as linhas gravadas.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentRetrySchedulerTest {
+
+	@Autowired
+	private PaymentRetryRepository repo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private ProducerTemplate template;
+	private PaymentProperties props;
+	private PaymentRetryScheduler scheduler;
+
+	@BeforeEach
+	void setup() {
+		template = mock(ProducerTemplate.class);
+		props = new PaymentProperties();
+		props.getRetry().setHorizon(Duration.ofSeconds(2));
+		scheduler = new PaymentRetryScheduler(repo, template, props, transactionManager, new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		scheduler.stop();
+		repo.deleteAll();
+	}
+
+	@Test
+	void schedule_firesWhenDue_andKeepsTheRecordLeasedUntilCompleted() {
+		scheduler.start();
+		scheduler.schedule("order-1", 1500, 2, Duration.ofMillis(100));
+
+		verify(template, timeout(3000)).sendBodyAndHeaders(eq(PaymentRoute.SEDA_PAY), isNull(),
+				eq(Map.of("orderId", "order-1", "amount", 1500L, PaymentRoute.ATTEMPT_HEADER, 2)));
+		assertThat(repo.findAll()).singleElement()
+				.satisfies(r -> assertThat(r.getDueAt()).isAfter(Instant.now().plus(Duration.ofMinutes(4))));
+
+		scheduler.completed("order-1");
+		assertThat(repo.count()).isZero();
+	}
+
+	@Test
+	void firedButNeverCompleted_firesAgainWhenTheLeaseRunsOut() {
+		props.getRetry().setLease(Duration.ofMillis(200));
+		scheduler.start();
+		scheduler.schedule("order-5", 100, 2, Duration.ZERO);
+
+		// Simula a mensagem perdida na SEDA: ninguém chama completed.
+		verify(template, timeout(5000).times(2)).sendBodyAndHeaders(eq(PaymentRoute.SEDA_PAY), isNull(),
+				eq(Map.of("orderId", "order-5", "amount", 100L, PaymentRoute.ATTEMPT_HEADER, 2)));
+		assertThat(repo.count()).isEqualTo(1);
+	}
+
+	@Test
+	void start_reloadsPendingRetriesFromTheDatabase() {
+		repo.save(new PaymentRetry("order-2", 900, 3, Instant.now().minusSeconds(5)));
+		PaymentRetry later = repo.save(new PaymentRetry("order-3", 900, 2, Instant.now().plus(Duration.ofHours(1))));
+
+		scheduler.start();
+
+		verify(template, timeout(3000)).sendBodyAndHeaders(eq(PaymentRoute.SEDA_PAY), isNull(),
+				eq(Map.of("orderId", "order-2", "amount", 900L, PaymentRoute.ATTEMPT_HEADER, 3)));
+		verify(template, after(300).times(1)).sendBodyAndHeaders(anyString(), any(), anyMap());
+		scheduler.completed("order-2");
+		assertThat(repo.findAll()).extracting(PaymentRetry::getId).containsExactly(later.getId());
+	}
+
+	@Test
+	void rejectedByQueue_isRescheduledInsteadOfLost() {
+		doThrow(new IllegalStateException("Queue full")).doNothing().when(template)
+				.sendBodyAndHeaders(anyString(), any(), anyMap());
+		scheduler.start();
+		scheduler.schedule("order-4", 100, 2, Duration.ZERO);
+
+		verify(template, timeout(3000).times(2)).sendBodyAndHeaders(anyString(), any(), anyMap());
+		assertThat(repo.count()).isEqualTo(1);
+	}
+
+}
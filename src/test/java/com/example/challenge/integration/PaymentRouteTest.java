@@ -10,13 +10,29 @@ import org.apache.camel.model.RouteDefinition;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.domain.PaymentOutboxEntry;
 import com.example.challenge.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 class PaymentRouteTest {
@@ -24,6 +40,9 @@ class PaymentRouteTest {
 	private DefaultCamelContext context;
 	private ProducerTemplate template;
 	private AutoCloseable mocks;
+	private PaymentHttpGuard guard;
+	private SimpleMeterRegistry registry;
+	private PaymentMetrics metrics;
 
 	@Mock
 	private PaymentProperties props;
@@ -34,6 +53,9 @@ class PaymentRouteTest {
 	@Mock
 	private OrderService orderService;
 
+	@Mock
+	private PaymentRetryScheduler retries;
+
 	@BeforeEach
 	void setup() throws Exception {
 		mocks = MockitoAnnotations.openMocks(this);
@@ -44,9 +66,22 @@ class PaymentRouteTest {
 		when(retry.getMaxRedeliveries()).thenReturn(0);
 		when(retry.getRedeliveryDelayMs()).thenReturn(1L);
 		when(retry.getBackoffMultiplier()).thenReturn(1.0);
+		when(retry.getStrategy()).thenReturn(PaymentProperties.RetryStrategy.IN_THREAD);
+		when(props.getDispatch()).thenReturn(new PaymentProperties.Dispatch());
+		when(props.getBatch()).thenReturn(new PaymentProperties.Batch());
+		when(props.getCircuitBreaker()).thenReturn(new PaymentProperties.CircuitBreaker());
+		when(props.getBulkhead()).thenReturn(new PaymentProperties.Bulkhead());
+		when(props.getHttp()).thenReturn(new PaymentProperties.Http());
+		when(props.getLanes()).thenReturn(new PaymentProperties.Lanes());
+		when(props.getLimiter()).thenReturn(new PaymentProperties.Limiter());
+		when(props.getHedge()).thenReturn(new PaymentProperties.Hedge());
+		when(orderService.status(anyString())).thenReturn(Optional.of(OrderStatus.NEW));
 
+		registry = new SimpleMeterRegistry();
+		guard = new PaymentHttpGuard(props, new PaymentConcurrencyLimiter(props, registry));
+		metrics = new PaymentMetrics(registry);
 		context = new DefaultCamelContext();
-		context.addRoutes(new PaymentRoute(props, orderService));
+		context.addRoutes(new PaymentRoute(props, orderService, new PaymentAttempts(props), guard, retries, metrics));
 		template = context.createProducerTemplate();
 
 	}
@@ -72,11 +107,11 @@ class PaymentRouteTest {
 
 	@Test
 	void when_amount_below_threshold_then_calls_success_and_marks_paid() throws Exception {
-		RouteDefinition rd = context.getRouteDefinition("payment-route");
+		RouteDefinition rd = context.getRouteDefinition("payment-http-route");
 		if (rd == null) {
-			System.err.println("Route 'payment-route' not found. Available route ids:");
+			System.err.println("Route 'payment-http-route' not found. Available route ids:");
 			context.getRouteDefinitions().forEach(r -> System.err.println(" - " + r.getId()));
-			throw new IllegalStateException("Route with id 'payment-route' not registered");
+			throw new IllegalStateException("Route with id 'payment-http-route' not registered");
 		}
 
 		AdviceWith.adviceWith(rd, context, new AdviceWithRouteBuilder() {
@@ -91,21 +126,24 @@ class PaymentRouteTest {
 		http.expectedMessageCount(1);
 
 		template.start();
-		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-1", "amount", 500.0));
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-1", "amount", 50000L));
 
 		http.assertIsSatisfied();
 		verify(orderService, times(1)).markPaid("order-1");
 		verify(orderService, never()).markFailed(anyString());
+		assertThat(registry.timer("payment.exchange", "outcome", "PAID").count()).isEqualTo(1);
+		assertThat(registry.timer("payment.http.client", "outcome", "success", "status", "2xx").count()).isEqualTo(1);
+		assertThat(registry.counter("payment.outcomes", "outcome", "PAID").count()).isEqualTo(1);
 
 	}
 
 	@Test
 	void when_http_fails_then_marks_failed() throws Exception {
-		RouteDefinition rd = context.getRouteDefinition("payment-route");
+		RouteDefinition rd = context.getRouteDefinition("payment-http-route");
 		if (rd == null) {
-			System.err.println("Route 'payment-route' not found. Available route ids:");
+			System.err.println("Route 'payment-http-route' not found. Available route ids:");
 			context.getRouteDefinitions().forEach(r -> System.err.println(" - " + r.getId()));
-			throw new IllegalStateException("Route with id 'payment-route' not registered");
+			throw new IllegalStateException("Route with id 'payment-http-route' not registered");
 		}
 
 		AdviceWith.adviceWith(rd, context, new AdviceWithRouteBuilder() {
@@ -120,11 +158,409 @@ class PaymentRouteTest {
 		context.start();
 		template.start();
 
-		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-2", "amount", 2000.0));
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-2", "amount", 200000L));
 		Thread.sleep(200);
 
 		verify(orderService, times(1)).markFailed("order-2");
 		verify(orderService, never()).markPaid(anyString());
 
 	}
-}
\ No newline at end of file
+
+	@Test
+	void batch_splits_orders_and_aggregates_outcomes() throws Exception {
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http://success*").skipSendToOriginalEndpoint().to("mock:http");
+				interceptSendToEndpoint("http://failure*").skipSendToOriginalEndpoint().process(exchange -> {
+					throw new HttpOperationFailedException("uri", 500, "Server Error", null, null, null);
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+
+		Order cheap = new Order();
+		cheap.setTotal(10000);
+		Order expensive = new Order();
+		expensive.setTotal(500000);
+
+		PaymentBatchResult result = template.requestBody(PaymentRoute.DIRECT_PAY_BATCH, List.of(cheap, expensive),
+				PaymentBatchResult.class);
+
+		assertThat(result.getRequested()).isEqualTo(2);
+		assertThat(result.getPaid()).isEqualTo(1);
+		assertThat(result.getFailed()).isEqualTo(1);
+		verify(orderService).markPaid(cheap.getId());
+		verify(orderService).markFailed(expensive.getId());
+	}
+
+	@Test
+	void when_provider_times_out_then_marks_failed_and_records_outcome() throws Exception {
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().process(exchange -> {
+					throw new SocketTimeoutException("Read timed out");
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+		Exchange result = template.request("direct:payOrder", exchange -> exchange.getIn()
+				.setHeaders(Map.of("orderId", "order-16", "amount", 50000L)));
+
+		assertThat(result.getException()).isNull();
+		assertThat(result.getProperty(PaymentRoute.OUTCOME_PROPERTY)).isEqualTo(PaymentBatchResult.Outcome.FAILED);
+		verify(orderService).markFailed("order-16");
+		assertThat(registry.counter("payment.outcomes", "outcome", "FAILED").count()).isEqualTo(1);
+	}
+
+	@Test
+	void every_redelivery_goes_through_the_circuit_breaker() throws Exception {
+		when(retry.getMaxRedeliveries()).thenReturn(2);
+		guard = new PaymentHttpGuard(props, new PaymentConcurrencyLimiter(props, registry));
+		context = new DefaultCamelContext();
+		context.addRoutes(new PaymentRoute(props, orderService, new PaymentAttempts(props), guard, retries, metrics));
+		template = context.createProducerTemplate();
+
+		AtomicInteger calls = new AtomicInteger();
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().process(exchange -> {
+					calls.incrementAndGet();
+					throw new HttpOperationFailedException("uri", 500, "Server Error", null, null, null);
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-3", "amount", 200000L));
+
+		assertThat(calls.get()).isEqualTo(3);
+		assertThat(guard.getCircuitBreaker().getMetrics().getNumberOfFailedCalls()).isEqualTo(3);
+		verify(orderService, times(1)).markFailed("order-3");
+	}
+
+	@Test
+	void when_circuit_is_open_then_fails_fast_without_http_call() throws Exception {
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().to("mock:http");
+			}
+		});
+
+		context.start();
+		MockEndpoint http = context.getEndpoint("mock:http", MockEndpoint.class);
+		http.expectedMessageCount(0);
+		guard.getCircuitBreaker().transitionToOpenState();
+
+		template.start();
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-4", "amount", 50000L));
+
+		http.assertIsSatisfied();
+		verify(orderService, times(1)).markFailed("order-4");
+		verify(orderService, never()).markPaid(anyString());
+	}
+
+	@Test
+	void when_limiter_has_no_slot_then_payment_is_deferred_or_rescheduled_but_never_failed() throws Exception {
+		PaymentProperties.Limiter config = new PaymentProperties.Limiter();
+		config.setInitialLimit(1);
+		config.setMaxWait(Duration.ofMillis(10));
+		when(props.getLimiter()).thenReturn(config);
+		when(retry.getStrategy()).thenReturn(PaymentProperties.RetryStrategy.PERSISTENT);
+		when(retry.getMaxRedeliveries()).thenReturn(2);
+		when(retry.delayBefore(anyInt())).thenReturn(Duration.ofSeconds(30));
+		PaymentConcurrencyLimiter limiter = new PaymentConcurrencyLimiter(props, registry);
+		limiter.acquire();
+		guard = new PaymentHttpGuard(props, limiter);
+		context = new DefaultCamelContext();
+		context.addRoutes(new PaymentRoute(props, orderService, new PaymentAttempts(props), guard, retries, metrics));
+		template = context.createProducerTemplate();
+
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().to("mock:http");
+			}
+		});
+		context.start();
+		MockEndpoint http = context.getEndpoint("mock:http", MockEndpoint.class);
+		http.expectedMessageCount(0);
+
+		template.start();
+		Exchange rescheduled = template.request("direct:payOrder", exchange -> exchange.getIn()
+				.setHeaders(Map.of("orderId", "order-14", "amount", 50000L)));
+		Exchange deferred = template.request("direct:payOrder", exchange -> exchange.getIn()
+				.setHeaders(Map.of("orderId", "order-15", "amount", 50000L, PaymentRoute.ATTEMPT_HEADER, 3)));
+
+		http.assertIsSatisfied();
+		assertThat(rescheduled.getProperty(PaymentRoute.OUTCOME_PROPERTY)).isEqualTo(PaymentBatchResult.Outcome.RETRY_SCHEDULED);
+		assertThat(deferred.getProperty(PaymentRoute.OUTCOME_PROPERTY)).isEqualTo(PaymentBatchResult.Outcome.DEFERRED);
+		verify(retries).schedule("order-14", 50000L, 2, Duration.ofSeconds(30));
+		verify(retries, never()).schedule(eq("order-15"), anyLong(), anyInt(), any());
+		verify(orderService, never()).markFailed(anyString());
+		verify(retries, never()).completed(anyString());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void outbox_poller_pays_claimed_entries_and_closes_them() throws Exception {
+		PaymentProperties.Dispatch dispatch = new PaymentProperties.Dispatch();
+		dispatch.setMode(PaymentProperties.DispatchMode.OUTBOX);
+		PaymentProperties.Outbox config = new PaymentProperties.Outbox();
+		config.setPollInterval(Duration.ofMillis(10));
+		when(props.getDispatch()).thenReturn(dispatch);
+		when(props.getOutbox()).thenReturn(config);
+
+		PaymentOutbox outbox = mock(PaymentOutbox.class);
+		List<PaymentOutboxEntry> claimed = List.of(new PaymentOutboxEntry("order-5", 10000, Instant.now()),
+				new PaymentOutboxEntry("order-6", 500000, Instant.now()));
+		when(outbox.claim()).thenReturn(claimed).thenReturn(List.of());
+		context.addRoutes(new PaymentOutboxRoute(props, outbox));
+
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http://success*").skipSendToOriginalEndpoint().to("mock:http");
+				interceptSendToEndpoint("http://failure*").skipSendToOriginalEndpoint().process(exchange -> {
+					throw new HttpOperationFailedException("uri", 500, "Server Error", null, null, null);
+				});
+			}
+		});
+		context.start();
+
+		ArgumentCaptor<PaymentBatchResult> result = ArgumentCaptor.forClass(PaymentBatchResult.class);
+		verify(outbox, timeout(5000)).complete(eq(claimed), result.capture());
+		assertThat(result.getValue().getPaid()).isEqualTo(1);
+		assertThat(result.getValue().getFailed()).isEqualTo(1);
+		verify(orderService).markPaid("order-5");
+		verify(orderService).markFailed("order-6");
+	}
+
+	@Test
+	void persistent_retry_schedules_next_attempt_and_releases_the_exchange() throws Exception {
+		when(retry.getStrategy()).thenReturn(PaymentProperties.RetryStrategy.PERSISTENT);
+		when(retry.getMaxRedeliveries()).thenReturn(2);
+		when(retry.delayBefore(anyInt())).thenReturn(Duration.ofSeconds(30));
+		context = new DefaultCamelContext();
+		context.addRoutes(new PaymentRoute(props, orderService, new PaymentAttempts(props), guard, retries, metrics));
+		template = context.createProducerTemplate();
+
+		AtomicInteger calls = new AtomicInteger();
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().process(exchange -> {
+					calls.incrementAndGet();
+					throw new HttpOperationFailedException("uri", 500, "Server Error", null, null, null);
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-7", "amount", 200000L));
+		template.sendBodyAndHeaders("direct:payOrder", null,
+				Map.of("orderId", "order-8", "amount", 200000L, PaymentRoute.ATTEMPT_HEADER, 3));
+
+		assertThat(calls.get()).isEqualTo(2);
+		verify(retries).schedule("order-7", 200000L, 2, Duration.ofSeconds(30));
+		verify(orderService, never()).markFailed("order-7");
+		verify(orderService).markFailed("order-8");
+		verify(retries, never()).schedule(eq("order-8"), anyLong(), anyInt(), any());
+		verify(retries).completed("order-8");
+		verify(retries, never()).completed("order-7");
+	}
+
+	@Test
+	void payments_of_the_same_order_never_overlap_and_the_repeat_is_skipped() throws Exception {
+		when(orderService.status("order-9")).thenReturn(Optional.of(OrderStatus.NEW)).thenReturn(Optional.of(OrderStatus.PAID));
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		AtomicInteger calls = new AtomicInteger();
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().process(exchange -> {
+					calls.incrementAndGet();
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					Thread.sleep(100);
+					inFlight.decrementAndGet();
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+		Map<String, Object> headers = Map.of("orderId", "order-9", "amount", 50000L);
+		CompletableFuture<Object> first = template.asyncRequestBodyAndHeaders(PaymentRoute.DIRECT_PAY, null, headers);
+		CompletableFuture<Object> second = template.asyncRequestBodyAndHeaders(PaymentRoute.DIRECT_PAY, null, headers);
+		CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+		assertThat(maxInFlight.get()).isEqualTo(1);
+		assertThat(calls.get()).isEqualTo(1);
+		verify(orderService, times(1)).markPaid("order-9");
+		assertThat(registry.counter("payment.outcomes", "outcome", "SKIPPED").count()).isEqualTo(1);
+	}
+
+	@Test
+	void deleted_order_is_skipped_without_calling_the_provider_and_its_retry_row_is_closed() throws Exception {
+		when(orderService.status("order-18")).thenReturn(Optional.empty());
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().to("mock:http");
+			}
+		});
+
+		context.start();
+		MockEndpoint http = context.getEndpoint("mock:http", MockEndpoint.class);
+		http.expectedMessageCount(0);
+		template.start();
+		Exchange result = template.request("direct:payOrder", exchange -> exchange.getIn()
+				.setHeaders(Map.of("orderId", "order-18", "amount", 50000L, PaymentRoute.ATTEMPT_HEADER, 2)));
+
+		http.assertIsSatisfied();
+		assertThat(result.getException()).isNull();
+		assertThat(result.getProperty(PaymentRoute.OUTCOME_PROPERTY)).isEqualTo(PaymentBatchResult.Outcome.SKIPPED);
+		verify(orderService, never()).markPaid(anyString());
+		verify(orderService, never()).markFailed(anyString());
+		verify(retries).completed("order-18");
+	}
+
+	@Test
+	void payments_of_orders_in_different_lanes_run_in_parallel() throws Exception {
+		int stripes = new PaymentProperties.Lanes().getStripes();
+		String other = IntStream.range(0, 100).mapToObj(i -> "order-" + i)
+				.filter(id -> PaymentLanes.lane(id, stripes) != PaymentLanes.lane("order-10", stripes))
+				.findFirst().orElseThrow();
+		// Só passa se as duas chamadas HTTP estiverem em andamento ao mesmo tempo.
+		CyclicBarrier together = new CyclicBarrier(2);
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint()
+						.process(exchange -> together.await(5, TimeUnit.SECONDS));
+			}
+		});
+
+		context.start();
+		template.start();
+		CompletableFuture<Object> first = template.asyncRequestBodyAndHeaders(PaymentRoute.DIRECT_PAY, null,
+				Map.of("orderId", "order-10", "amount", 50000L));
+		CompletableFuture<Object> second = template.asyncRequestBodyAndHeaders(PaymentRoute.DIRECT_PAY, null,
+				Map.of("orderId", other, "amount", 50000L));
+		CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+		verify(orderService).markPaid("order-10");
+		verify(orderService).markPaid(other);
+		assertThat(registry.get("payment.lanes").gauge().value()).isEqualTo(stripes);
+		assertThat(registry.get("payment.lanes.depth").tag("stat", "total").gauge().value()).isZero();
+	}
+
+	@Test
+	void slow_success_call_is_hedged_and_the_faster_answer_wins() throws Exception {
+		hedgeConfig(1.0);
+		AtomicInteger calls = new AtomicInteger();
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-call-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().process(exchange -> {
+					if (calls.incrementAndGet() == 1) {
+						Thread.sleep(2000);
+					}
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+		long started = System.nanoTime();
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-11", "amount", 50000L));
+
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(1500));
+		assertThat(calls.get()).isEqualTo(2);
+		verify(orderService, times(1)).markPaid("order-11");
+		assertThat(registry.counter("payment.hedge.fired").count()).isEqualTo(1);
+		assertThat(registry.counter("payment.hedge.won").count()).isEqualTo(1);
+		// A primeira chamada continua no provedor e segura a vaga do hedge até terminar.
+		assertThat(guard.getLimiter().inFlight()).isEqualTo(1);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (guard.getLimiter().inFlight() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(guard.getLimiter().inFlight()).isZero();
+	}
+
+	@Test
+	void hedge_is_skipped_when_the_limiter_has_no_free_slot() throws Exception {
+		hedgeConfig(1.0);
+		PaymentProperties.Limiter config = new PaymentProperties.Limiter();
+		config.setInitialLimit(1);
+		when(props.getLimiter()).thenReturn(config);
+		guard = new PaymentHttpGuard(props, new PaymentConcurrencyLimiter(props, registry));
+		context = new DefaultCamelContext();
+		context.addRoutes(new PaymentRoute(props, orderService, new PaymentAttempts(props), guard, retries, metrics));
+		template = context.createProducerTemplate();
+		AtomicInteger calls = new AtomicInteger();
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-call-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().process(exchange -> {
+					calls.incrementAndGet();
+					Thread.sleep(300);
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-17", "amount", 50000L));
+
+		assertThat(calls.get()).isEqualTo(1);
+		verify(orderService, times(1)).markPaid("order-17");
+		assertThat(registry.counter("payment.hedge.fired").count()).isZero();
+		assertThat(guard.getLimiter().inFlight()).isZero();
+	}
+
+	@Test
+	void hedges_are_capped_by_the_budget() throws Exception {
+		hedgeConfig(0.1);
+		AtomicInteger calls = new AtomicInteger();
+		AdviceWith.adviceWith(context.getRouteDefinition("payment-http-call-route"), context, new AdviceWithRouteBuilder() {
+			@Override
+			public void configure() {
+				interceptSendToEndpoint("http*").skipSendToOriginalEndpoint().process(exchange -> {
+					calls.incrementAndGet();
+					Thread.sleep(200);
+				});
+			}
+		});
+
+		context.start();
+		template.start();
+		template.sendBodyAndHeaders("direct:payOrder", null, Map.of("orderId", "order-12", "amount", 50000L));
+
+		assertThat(calls.get()).isEqualTo(1);
+		verify(orderService, times(1)).markPaid("order-12");
+		assertThat(registry.counter("payment.hedge.fired").count()).isZero();
+	}
+
+	/** Hedge depois de 50 ms desde a primeira chamada, com {@code maxRatio} de crédito por chamada. */
+	private void hedgeConfig(double maxRatio) {
+		PaymentProperties.Hedge hedge = new PaymentProperties.Hedge();
+		hedge.setEnabled(true);
+		hedge.setMinSamples(0);
+		hedge.setMinDelay(Duration.ofMillis(50));
+		hedge.setMaxRatio(maxRatio);
+		hedge.setBurst(1);
+		when(props.getHedge()).thenReturn(hedge);
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.challenge.load;
+
+import java.util.Arrays;
+
+/** Amostras de latência em nanossegundos; percentis por ordenação no fim da rodada. */
+class LatencyRecorder {
+
+  private long[] samples = new long[1024];
+  private int size;
+
+  synchronized void record(long nanos) {
+    if (size == samples.length) {
+      samples = Arrays.copyOf(samples, size * 2);
+    }
+    samples[size++] = nanos;
+  }
+
+  synchronized int count() {
+    return size;
+  }
+
+  /** Percentil {@code p} (0-100) em milissegundos; 0 sem amostras. */
+  synchronized double percentileMs(double p) {
+    if (size == 0) {
+      return 0;
+    }
+    long[] sorted = Arrays.copyOf(samples, size);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(p / 100.0 * size) - 1;
+    return sorted[Math.min(Math.max(index, 0), size - 1)] / 1_000_000.0;
+  }
+
+  String summary() {
+    return String.format("n=%d p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms", count(),
+        percentileMs(50), percentileMs(90), percentileMs(99), percentileMs(99.9), percentileMs(100));
+  }
+}
@@ -0,0 +1,255 @@
+package com.example.challenge.load;
+
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.repo.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga ponta a ponta (Tomcat → OrderController → OrderService/H2 → PaymentRoute → HTTP) contra o
+ * {@link PaymentProviderStub}. Modelo aberto: cada create+pay tem um horário planejado pela taxa
+ * alvo e a latência conta a partir dele, então fila no servidor aparece nos percentis.
+ * <p>
+ * Só roda com {@code mvn -Ploadtest verify}; parâmetros por {@code -D}:
+ * load.rate (req/s), load.warmup e load.duration (s), load.failure-ratio (pedidos acima de 1000),
+ * stub.median-ms, stub.p99-ms, stub.error-rate e os limites load.slo.pay-p99-ms e
+ * load.slo.min-throughput (fração da taxa alvo).
+ * <p>
+ * Comparação de modos de thread (JDK 21+): rodar com {@code -Dspring.profiles.active=virtual-threads}
+ * e de novo com {@code -Dspring.threads.virtual.enabled=false} (mesmos limites, threads de
+ * plataforma), com {@code -Dpayment.dispatch.mode=blocking} para o /pay esperar o provedor.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "logging.level.payment-route=WARN",
+    "logging.level.payment-http-route=WARN",
+    "logging.level.com.example.challenge.integration=WARN",
+    "logging.level.org.apache.camel.processor.errorhandler=ERROR" })
+class OrderPaymentLoadTest {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderPaymentLoadTest.class);
+
+  private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "50"));
+  private static final int WARMUP_S = Integer.getInteger("load.warmup", 10);
+  private static final int DURATION_S = Integer.getInteger("load.duration", 20);
+  private static final double FAILURE_RATIO = Double.parseDouble(System.getProperty("load.failure-ratio", "0.05"));
+  private static final double SLO_PAY_P99_MS = Double.parseDouble(System.getProperty("load.slo.pay-p99-ms", "500"));
+  private static final double SLO_MIN_THROUGHPUT = Double.parseDouble(System.getProperty("load.slo.min-throughput", "0.9"));
+  private static final Duration SETTLE_TIMEOUT = Duration.ofSeconds(Integer.getInteger("load.settle-timeout", 60));
+
+  private static final PaymentProviderStub STUB = startStub();
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private OrderRepository repo;
+
+  @Autowired
+  private ObjectMapper mapper;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .executor(Executors.newCachedThreadPool())
+      .connectTimeout(Duration.ofSeconds(2))
+      .build();
+  private final LatencyRecorder createLatency = new LatencyRecorder();
+  private final LatencyRecorder payLatency = new LatencyRecorder();
+  private final LatencyRecorder flowLatency = new LatencyRecorder();
+  private final Map<String, LongAdder> httpStatus = new ConcurrentHashMap<>();
+  private final AtomicInteger created = new AtomicInteger();
+  private final AtomicInteger accepted = new AtomicInteger();
+
+  @DynamicPropertySource
+  static void providerUrls(DynamicPropertyRegistry registry) {
+    registry.add("payment.success-url", () -> STUB.url("/http/200"));
+    registry.add("payment.failure-url", () -> STUB.url("/http/500"));
+  }
+
+  @AfterAll
+  static void stopStub() {
+    STUB.close();
+  }
+
+  @Test
+  void createAndPay_atTargetRate() throws Exception {
+    // Aquecimento (JIT, pools, H2) na mesma taxa, fora dos percentis.
+    drive((int) Math.round(RATE * WARMUP_S), false);
+    int total = (int) Math.round(RATE * DURATION_S);
+    long start = System.nanoTime();
+    drive(total, true);
+    double elapsedS = (System.nanoTime() - start) / 1e9;
+    long settleStart = System.nanoTime();
+    Map<OrderStatus, Long> mix = awaitSettled();
+    double settleS = (System.nanoTime() - settleStart) / 1e9;
+    double throughput = flowLatency.count() / elapsedS;
+
+    log.info("""
+
+        ===== carga create+pay =====
+        alvo: {} req/s por {}s após {}s de aquecimento ({} fluxos, {}% acima de 1000)
+        vazão: {} fluxos/s em {}s
+        POST /api/orders:          {}
+        POST /api/orders/:id/pay:   {}
+        create+pay:                {}
+        status HTTP (com aquecimento): {}
+        status final (com aquecimento): {}
+        provedor (stub): {}
+        threads: {} (pico de {} threads de plataforma); pagamentos liquidados {}s após a carga
+        """, RATE, DURATION_S, WARMUP_S, total, FAILURE_RATIO * 100, String.format("%.1f", throughput),
+        String.format("%.1f", elapsedS), createLatency.summary(), payLatency.summary(), flowLatency.summary(),
+        sums(httpStatus), mix, STUB.responses(), virtualThreads && Runtime.version().feature() >= 21 ? "virtuais" : "plataforma",
+        ManagementFactory.getThreadMXBean().getPeakThreadCount(), String.format("%.1f", settleS));
+
+    assertThat(httpStatus.keySet()).as("status HTTP inesperados").allMatch(s -> s.matches("create 201|pay 202|pay 503"));
+    assertThat(mix.getOrDefault(OrderStatus.NEW, 0L)).as("pedidos aceitos que não terminaram")
+        .isEqualTo((long) created.get() - accepted.get());
+    assertThat(payLatency.percentileMs(99)).as("p99 de /pay (ms)").isLessThanOrEqualTo(SLO_PAY_P99_MS);
+    assertThat(throughput).as("vazão (fluxos/s)").isGreaterThanOrEqualTo(RATE * SLO_MIN_THROUGHPUT);
+  }
+
+  /** Dispara {@code total} fluxos na taxa alvo e espera todos responderem. */
+  private void drive(int total, boolean recorded) throws Exception {
+    long periodNanos = Math.round(1_000_000_000L / RATE);
+    CompletableFuture<?>[] flows = new CompletableFuture<?>[total];
+    AtomicInteger next = new AtomicInteger();
+    ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    long start = System.nanoTime();
+
+    ticker.scheduleAtFixedRate(() -> {
+      // Se o ticker atrasar, dispara tudo o que já estava planejado; nada de "pular" requisições.
+      long now = System.nanoTime();
+      for (int i = next.get(); i < total && start + i * periodNanos <= now; i = next.incrementAndGet()) {
+        flows[i] = flow(start + i * periodNanos, recorded);
+      }
+    }, 0, Math.max(periodNanos, 1_000_000L), TimeUnit.NANOSECONDS);
+
+    while (next.get() < total) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    ticker.shutdownNow();
+    CompletableFuture.allOf(flows).get(SETTLE_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+  }
+
+  private CompletableFuture<Void> flow(long intendedStart, boolean recorded) {
+    boolean failing = ThreadLocalRandom.current().nextDouble() < FAILURE_RATIO;
+    String body = "{\"customerId\":\"load\",\"items\":[{\"sku\":\"1\",\"qty\":1,\"unitPrice\":"
+        + (failing ? "1500.00" : "10.00") + "}]}";
+    HttpRequest create = HttpRequest.newBuilder(uri("/api/orders"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    return client.sendAsync(create, HttpResponse.BodyHandlers.ofString())
+        .thenCompose(response -> {
+          long createdAt = System.nanoTime();
+          if (recorded) {
+            createLatency.record(createdAt - intendedStart);
+          }
+          count("create " + response.statusCode());
+          created.incrementAndGet();
+          HttpRequest pay = HttpRequest.newBuilder(uri("/api/orders/" + orderId(response.body()) + "/pay"))
+              .POST(HttpRequest.BodyPublishers.noBody())
+              .build();
+          return client.sendAsync(pay, HttpResponse.BodyHandlers.discarding())
+              .thenAccept(paid -> {
+                long now = System.nanoTime();
+                if (recorded) {
+                  payLatency.record(now - createdAt);
+                  flowLatency.record(now - intendedStart);
+                }
+                count("pay " + paid.statusCode());
+                if (paid.statusCode() == 202) {
+                  accepted.incrementAndGet();
+                }
+              });
+        })
+        .exceptionally(e -> {
+          count("erro " + (e.getCause() != null ? e.getCause() : e).getClass().getSimpleName());
+          return null;
+        });
+  }
+
+  /** Espera os pagamentos aceitos chegarem a PAID/FAILED_PAYMENT e devolve o total por status. */
+  private Map<OrderStatus, Long> awaitSettled() throws InterruptedException {
+    long deadline = System.nanoTime() + SETTLE_TIMEOUT.toNanos();
+    Map<OrderStatus, Long> mix;
+    do {
+      mix = new EnumMap<>(OrderStatus.class);
+      for (OrderRepository.StatusTotals row : repo.summarizeByStatus()) {
+        mix.put(row.getStatus(), row.getCount());
+      }
+      long pending = mix.getOrDefault(OrderStatus.NEW, 0L) - (created.get() - accepted.get());
+      if (pending <= 0) {
+        return mix;
+      }
+      TimeUnit.MILLISECONDS.sleep(200);
+    } while (System.nanoTime() < deadline);
+    return mix;
+  }
+
+  private String orderId(String json) {
+    try {
+      return mapper.readTree(json).get("id").asText();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + port + path);
+  }
+
+  private void count(String key) {
+    httpStatus.computeIfAbsent(key, k -> new LongAdder()).increment();
+  }
+
+  private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+    Map<String, Long> out = new TreeMap<>();
+    counters.forEach((k, v) -> out.put(k, v.sum()));
+    return out;
+  }
+
+  private static PaymentProviderStub startStub() {
+    try {
+      return new PaymentProviderStub(Long.getLong("stub.median-ms", 20), Long.getLong("stub.p99-ms", 200),
+          Double.parseDouble(System.getProperty("stub.error-rate", "0.02")));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
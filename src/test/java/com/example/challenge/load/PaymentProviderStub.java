@@ -0,0 +1,77 @@
+package com.example.challenge.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Provedor de pagamento local no lugar de dummyjson.com/http/200 e /http/500. A latência segue uma
+ * log-normal definida pela mediana e pelo p99; {@code errorRate} é a fração de 500 em /http/200.
+ */
+class PaymentProviderStub implements AutoCloseable {
+
+  private static final double Z_99 = 2.3263;
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final double mu;
+  private final double sigma;
+  private final double errorRate;
+  private final Map<String, LongAdder> responses = new ConcurrentHashMap<>();
+
+  PaymentProviderStub(long medianMs, long p99Ms, double errorRate) throws IOException {
+    this.mu = Math.log(Math.max(medianMs, 1));
+    this.sigma = Math.log((double) Math.max(p99Ms, medianMs + 1) / Math.max(medianMs, 1)) / Z_99;
+    this.errorRate = errorRate;
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+    server.setExecutor(executor);
+    server.createContext("/http/200", exchange -> respond(exchange,
+        ThreadLocalRandom.current().nextDouble() < this.errorRate ? 500 : 200));
+    server.createContext("/http/500", exchange -> respond(exchange, 500));
+    server.start();
+  }
+
+  String url(String path) {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+  }
+
+  /** Respostas por "path status" ({@code /http/200 500} = erro injetado). */
+  Map<String, Long> responses() {
+    Map<String, Long> out = new TreeMap<>();
+    responses.forEach((k, v) -> out.put(k, v.sum()));
+    return out;
+  }
+
+  private void respond(HttpExchange exchange, int status) throws IOException {
+    try {
+      long delay = Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+      TimeUnit.MILLISECONDS.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    responses.computeIfAbsent(exchange.getHttpContext().getPath() + " " + status, k -> new LongAdder()).increment();
+    byte[] body = ("{\"status\":\"" + status + "\",\"message\":\"" + (status == 200 ? "OK" : "Internal Server Error")
+        + "\"}").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    exchange.getResponseBody().write(body);
+    exchange.close();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
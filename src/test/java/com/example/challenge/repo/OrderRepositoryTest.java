@@ -0,0 +1,198 @@
+package com.example.challenge.repo;
+
+import com.example.challenge.api.dto.OrderResponse;
+import com.example.challenge.api.dto.UpdateOrderRequest;
+import com.example.challenge.catalog.ProductCatalog;
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderItem;
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.mapper.OrderMapper;
+import com.example.challenge.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(OrderService.class)
+class OrderRepositoryTest {
+
+	private static final int ORDERS = 20;
+	private static final int ITEMS_PER_ORDER = 3;
+
+	@Autowired
+	private TestEntityManager em;
+
+	@Autowired
+	private EntityManagerFactory emf;
+
+	@Autowired
+	private OrderService service;
+
+	@MockBean
+	private ProductCatalog catalog;
+
+	@Autowired
+	private OrderRepository repo;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		for (int i = 0; i < ORDERS; i++) {
+			Order order = new Order();
+			order.setCustomerId("cust-" + i);
+			order.setStatus(i % 2 == 0 ? OrderStatus.NEW : OrderStatus.PAID);
+			for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+				OrderItem item = new OrderItem();
+				item.setSku("SKU-" + j);
+				item.setQty(1);
+				item.setUnitPrice(1000);
+				item.setOrder(order);
+				order.getItems().add(item);
+			}
+			em.persist(order);
+		}
+		em.flush();
+		em.clear();
+
+		statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void page_loadsOrdersWithItems_inTwoStatements() {
+		List<OrderResponse> page = service.page(Optional.empty(), "", ORDERS).stream()
+				.map(OrderMapper::toResponse).toList();
+
+		assertThat(page).hasSize(ORDERS);
+		assertThat(page).allSatisfy(o -> assertThat(o.getItems()).hasSize(ITEMS_PER_ORDER));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void page_withStatusFilter_isStillConstant() {
+		List<OrderResponse> page = service.page(Optional.of(OrderStatus.NEW), "", ORDERS).stream()
+				.map(OrderMapper::toResponse).toList();
+
+		assertThat(page).hasSize(ORDERS / 2);
+		assertThat(page).allSatisfy(o -> assertThat(o.getStatus()).isEqualTo(OrderStatus.NEW));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void forEach_streamsAllOrders_withoutPerOrderItemQueries() {
+		List<OrderResponse> streamed = new ArrayList<>();
+		service.forEach(Optional.empty(), order -> streamed.add(OrderMapper.toResponse(order)));
+
+		assertThat(streamed).hasSize(ORDERS);
+		assertThat(streamed).allSatisfy(o -> assertThat(o.getItems()).hasSize(ITEMS_PER_ORDER));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void get_fetchesItems_inOneStatement() {
+		String id = service.page(Optional.empty(), "", 1).get(0).getId();
+		em.clear();
+		statistics.clear();
+
+		OrderResponse order = service.get(id).map(OrderMapper::toResponse).orElseThrow();
+
+		assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void state_readsStatusAndTotal_withoutLoadingItems() {
+		Order order = repo.findAll().get(0);
+		em.clear();
+		statistics.clear();
+
+		assertThat(service.state(order.getId()))
+				.contains(new OrderState(order.getId(), order.getStatus(), order.getTotal()));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void list_returnsTheFirstOrdersOfTheStatusInIdOrder() {
+		List<String> ids = repo.findAll().stream().filter(o -> o.getStatus() == OrderStatus.NEW).map(Order::getId)
+				.sorted().toList();
+
+		assertThat(service.list(OrderStatus.NEW, 3)).extracting(Order::getId).containsExactlyElementsOf(ids.subList(0, 3));
+	}
+
+	@Test
+	void updateItems_replacesItemsOfTheManagedOrder() {
+		String id = service.page(Optional.of(OrderStatus.NEW), "", 1).get(0).getId();
+		em.clear();
+		UpdateOrderRequest.Item item = new UpdateOrderRequest.Item();
+		item.setSku("SKU-NEW");
+		item.setQty(2);
+		item.setUnitPrice(2500);
+		UpdateOrderRequest request = new UpdateOrderRequest();
+		request.setItems(List.of(item));
+
+		service.updateItems(id, request);
+		em.flush();
+		em.clear();
+
+		Order reloaded = service.get(id).orElseThrow();
+		assertThat(reloaded.getItems()).extracting(OrderItem::getSku).containsExactly("SKU-NEW");
+		assertThat(reloaded.getTotal()).isEqualTo(5000);
+	}
+
+	@Test
+	void transition_updatesOnlyOnce_andBumpsVersion() {
+		Order order = service.page(Optional.of(OrderStatus.NEW), "", 1).get(0);
+		Long version = order.getVersion();
+		em.clear();
+
+		assertThat(repo.transition(order.getId(), OrderStatus.NEW, OrderStatus.PAID)).isEqualTo(1);
+		assertThat(repo.transition(order.getId(), OrderStatus.NEW, OrderStatus.FAILED_PAYMENT)).isZero();
+
+		Order reloaded = em.find(Order.class, order.getId());
+		assertThat(reloaded.getStatus()).isEqualTo(OrderStatus.PAID);
+		assertThat(reloaded.getVersion()).isEqualTo(version + 1);
+		assertThat(reloaded.getUpdatedAt()).isAfterOrEqualTo(order.getUpdatedAt());
+	}
+
+	@Test
+	void archive_movesFinalOrdersOut_andGetStillFindsThem() {
+		Order paid = service.page(Optional.of(OrderStatus.PAID), "", 1).get(0);
+		em.clear();
+
+		assertThat(service.archive(Instant.now().plusSeconds(60), ORDERS)).isEqualTo(ORDERS / 2);
+		assertThat(service.archive(Instant.now().plusSeconds(60), ORDERS)).isZero();
+
+		assertThat(repo.findById(paid.getId())).isEmpty();
+		assertThat(service.page(Optional.empty(), "", ORDERS)).hasSize(ORDERS / 2)
+				.allSatisfy(o -> assertThat(o.getStatus()).isEqualTo(OrderStatus.NEW));
+
+		OrderResponse archived = service.get(paid.getId()).map(OrderMapper::toResponse).orElseThrow();
+		assertThat(archived.getStatus()).isEqualTo(OrderStatus.PAID);
+		assertThat(archived.getItems()).hasSize(ITEMS_PER_ORDER);
+		assertThat(archived.getTotal()).isEqualTo(paid.getTotal());
+		assertThat(service.version(paid.getId())).contains(paid.getVersion());
+		assertThat(service.status(paid.getId())).contains(OrderStatus.PAID);
+	}
+
+	@Test
+	void archive_keepsOrdersWrittenAfterCutoff() {
+		assertThat(service.archive(Instant.now().minusSeconds(60), ORDERS)).isZero();
+		assertThat(service.page(Optional.empty(), "", ORDERS)).hasSize(ORDERS);
+	}
+}
@@ -0,0 +1,166 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Order;
+import com.example.challenge.repo.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Sem transação de teste: cada chunk do importador commita a sua.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderImporterTest {
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private OrderRepository repo;
+
+  @Autowired
+  private EntityManagerFactory emf;
+
+  private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+  private OrderImportProperties props;
+  private OrderImporter importer;
+
+  @BeforeEach
+  void setup() {
+    props = new OrderImportProperties();
+    props.setChunkSize(2);
+    importer = new OrderImporter(entityManager, transactionManager,
+        Validation.buildDefaultValidatorFactory().getValidator(), events, new ObjectMapper(), props);
+  }
+
+  @AfterEach
+  void cleanup() {
+    repo.deleteAll();
+  }
+
+  @Test
+  void ndjson_importsValidLinesInChunks_andReportsRejectedOnes() throws Exception {
+    String body = """
+        {"customerId":"c1","items":[{"sku":"A","qty":2,"unitPrice":10.50}]}
+        {"customerId":"c2","items":[{"sku":"B","qty":1,"unitPrice":1}]}
+        {"customerId":"c3","items":[
+        {"customerId":"c4","items":[{"sku":"C","qty":0,"unitPrice":1}]}
+
+        {"customerId":"c5","items":[{"sku":"D","qty":1,"unitPrice":3},{"sku":"E","qty":3,"unitPrice":0.10}]}
+        """;
+
+    OrderImportReport report = importer.importOrders(stream(body), OrderImporter.Format.NDJSON);
+
+    assertThat(report.getReceived()).isEqualTo(5);
+    assertThat(report.getImported()).isEqualTo(3);
+    assertThat(report.getRejected()).isEqualTo(2);
+    assertThat(report.getErrors()).extracting(OrderImportReport.Error::getLine).containsExactly(3L, 4L);
+    assertThat(report.getErrors().get(1).getMessage()).contains("qty");
+    assertThat(repo.count()).isEqualTo(3);
+    assertThat(repo.findAll().stream().map(Order::getTotal).sorted().toList()).containsExactly(100L, 330L, 2100L);
+    verify(events, times(3)).publishEvent(any(OrderStatusChangedEvent.class));
+  }
+
+  @Test
+  void ndjson_nullRecordAndNullItem_areRejectedPerLine_andTheImportGoesOn() throws Exception {
+    String body = """
+        {"customerId":"c1","items":[{"sku":"A","qty":1,"unitPrice":1}]}
+        null
+        {"customerId":"c2","items":[null]}
+        {"customerId":"c3","items":[{"sku":"B","qty":1,"unitPrice":2}]}
+        """;
+
+    OrderImportReport report = importer.importOrders(stream(body), OrderImporter.Format.NDJSON);
+
+    assertThat(report.getReceived()).isEqualTo(4);
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getRejected()).isEqualTo(2);
+    assertThat(report.getErrors()).extracting(OrderImportReport.Error::getLine).containsExactly(2L, 3L);
+    assertThat(report.getErrors().get(0).getMessage()).isEqualTo("registro nulo");
+    assertThat(report.getErrors().get(1).getMessage()).contains("items[0]");
+    assertThat(repo.findAll()).extracting(Order::getCustomerId).containsExactlyInAnyOrder("c1", "c3");
+  }
+
+  @Test
+  void csv_groupsConsecutiveRowsByRef_andRejectsWholeOrderOnBadRow() throws Exception {
+    String body = """
+        ref,customerId,sku,qty,unitPrice
+        1,c1,A,1,10.00
+        1,c1,B,2,5.25
+        2,c2,A,x,1.00
+        3,c3,C,1,7
+        """;
+
+    OrderImportReport report = importer.importOrders(stream(body), OrderImporter.Format.CSV);
+
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getRejected()).isEqualTo(1);
+    assertThat(report.getErrors().get(0).getLine()).isEqualTo(4);
+    List<Order> orders = repo.findAll().stream().sorted(Comparator.comparing(Order::getCustomerId)).toList();
+    assertThat(orders).extracting(Order::getTotal).containsExactly(2050L, 700L);
+    assertThat(repo.findWithItemsById(orders.get(0).getId()).orElseThrow().getItems()).hasSize(2);
+  }
+
+  @Test
+  void chunk_insertsOrdersAndItemsInJdbcBatches() throws Exception {
+    props.setChunkSize(20);
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      body.append(i).append(",c").append(i).append(",A,1,1.00\n");
+      body.append(i).append(",c").append(i).append(",B,2,3.00\n");
+    }
+    Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    OrderImportReport report = importer.importOrders(stream(body.toString()), OrderImporter.Format.CSV);
+
+    assertThat(report.getImported()).isEqualTo(20);
+    assertThat(statistics.getEntityInsertCount()).isEqualTo(60);
+    // Um insert preparado por tabela (mais a sequence dos itens), não um por linha.
+    assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void failingChunk_isRetriedOneByOne_andOnlyTheBadOrderIsRejected() throws Exception {
+    String tooLong = "S".repeat(300);
+    String body = "1,c1,A,1,1.00\n2,c2," + tooLong + ",1,1.00\n3,c3,C,1,1.00\n";
+
+    OrderImportReport report = importer.importOrders(stream(body), OrderImporter.Format.CSV);
+
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getRejected()).isEqualTo(1);
+    assertThat(report.getErrors()).singleElement().satisfies(e -> {
+      assertThat(e.getLine()).isEqualTo(2);
+      assertThat(e.getMessage()).startsWith("falha ao gravar");
+    });
+    assertThat(repo.findAll()).extracting(Order::getCustomerId).containsExactlyInAnyOrder("c1", "c3");
+    verify(events, times(2)).publishEvent(any(OrderStatusChangedEvent.class));
+  }
+
+  private static ByteArrayInputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -3,20 +3,28 @@ package com.example.challenge.service;
 
 import com.example.challenge.api.dto.NewOrderRequest;
 import com.example.challenge.api.dto.UpdateOrderRequest;
+import com.example.challenge.catalog.Product;
+import com.example.challenge.catalog.ProductCatalog;
 import com.example.challenge.domain.Order;
 import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.repo.ArchivedOrderRepository;
 import com.example.challenge.repo.OrderRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import jakarta.persistence.EntityNotFoundException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -28,6 +36,18 @@ class OrderServiceTest {
   @Mock
   private OrderRepository repo;
 
+  @Mock
+  private ArchivedOrderRepository archive;
+
+  @Mock
+  private ProductCatalog catalog;
+
+  @Mock
+  private ApplicationEventPublisher events;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
   @InjectMocks
   private OrderService service;
 
@@ -43,12 +63,12 @@ class OrderServiceTest {
     NewOrderRequest.Item item1 = new NewOrderRequest.Item();
     item1.setSku("ABC123");
     item1.setQty(2);
-    item1.setUnitPrice(49.90);
+    item1.setUnitPrice(4990);
 
     NewOrderRequest.Item item2 = new NewOrderRequest.Item();
     item2.setSku("XYZ789");
     item2.setQty(1);
-    item2.setUnitPrice(149.90);
+    item2.setUnitPrice(14990);
 
     // Adicionando à lista
     List<NewOrderRequest.Item> items = new ArrayList<>();
@@ -68,6 +88,7 @@ class OrderServiceTest {
     assertThat(created).isNotNull();
     assertThat(created.getCustomerId()).isEqualTo(customertId);
     assertThat(created.getItems().size()).isEqualTo(2);
+    assertThat(created.getTotal()).isEqualTo(24970);
     
     verify(repo).save(any(Order.class));
   }
@@ -83,12 +104,12 @@ class OrderServiceTest {
     UpdateOrderRequest.Item item1 = new UpdateOrderRequest.Item();
     item1.setSku("ABC123");
     item1.setQty(2);
-    item1.setUnitPrice(49.90);
+    item1.setUnitPrice(4990);
 
     UpdateOrderRequest.Item item2 = new UpdateOrderRequest.Item();
     item2.setSku("XYZ789");
     item2.setQty(1);
-    item2.setUnitPrice(149.90);
+    item2.setUnitPrice(14990);
 
     // Adicionando à lista
     List<UpdateOrderRequest.Item> items = new ArrayList<>();
@@ -107,6 +128,31 @@ class OrderServiceTest {
     verify(repo).save(updated);
   }
 
+  @Test
+  void create_resolvesCatalogPricesBeforeOpeningTheTransaction() {
+    NewOrderRequest req = new NewOrderRequest();
+    req.setCustomerId("cust123");
+    NewOrderRequest.Item item = new NewOrderRequest.Item();
+    item.setSku("ABC123");
+    item.setQty(2);
+    item.setUnitPrice(1);
+    req.setItems(List.of(item));
+
+    Product product = new Product();
+    product.setPrice(4990);
+    when(catalog.isEnabled()).thenReturn(true);
+    when(catalog.resolve(Set.of("ABC123"))).thenReturn(Map.of("ABC123", product));
+    when(repo.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    Order created = service.create(req);
+
+    assertThat(created.getTotal()).isEqualTo(9980);
+    InOrder order = inOrder(catalog, transactionManager, repo);
+    order.verify(catalog).resolve(Set.of("ABC123"));
+    order.verify(transactionManager).getTransaction(any());
+    order.verify(repo).save(created);
+  }
+
   @Test
   void updateItems_throws_whenOrderNotFound() {
     when(repo.findById("missing")).thenReturn(Optional.empty());
@@ -163,50 +209,61 @@ class OrderServiceTest {
   }
 
   @Test
-  void markPaid_success_whenStatusIsNew() {
-    Order order = new Order();
-    String id = order.getId();
-    order.setStatus(OrderStatus.NEW);
+  void updateAndDelete_throwConflict_whenOrderWasArchived() {
+    when(repo.findById("old")).thenReturn(Optional.empty());
+    when(archive.findStatusById("old")).thenReturn(Optional.of(OrderStatus.PAID));
 
-    when(repo.findById(id)).thenReturn(Optional.of(order));
-    when(repo.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+    assertThrows(IllegalStateException.class, () -> service.updateItems("old", new UpdateOrderRequest()));
+    assertThrows(IllegalStateException.class, () -> service.delete("old"));
+    verify(repo, never()).delete(any());
+  }
 
-    service.markPaid(id);
+  @Test
+  void markPaid_throwsConflict_whenOrderWasArchived() {
+    when(repo.transition("old", OrderStatus.NEW, OrderStatus.PAID)).thenReturn(0);
+    when(archive.findStatusById("old")).thenReturn(Optional.of(OrderStatus.CANCELLED));
 
-    assertThat(order.getStatus()).isEqualTo(OrderStatus.PAID);
-    verify(repo).save(order);
+    assertThrows(IllegalStateException.class, () -> service.markPaid("old"));
+    verifyNoInteractions(events);
   }
 
   @Test
-  void markPaid_throws_whenNotNew() {
-    Order order = new Order();
-    String id = order.getId();
-    order.setStatus(OrderStatus.PAID);
+  void markPaid_success_whenStatusIsNew() {
+    when(repo.transition("o-1", OrderStatus.NEW, OrderStatus.PAID)).thenReturn(1);
+    when(repo.findTotalById("o-1")).thenReturn(Optional.of(4990L));
 
-    when(repo.findById(id)).thenReturn(Optional.of(order));
+    service.markPaid("o-1");
 
-    assertThrows(IllegalStateException.class, () -> service.markPaid(id));
+    verify(repo).transition("o-1", OrderStatus.NEW, OrderStatus.PAID);
+    verify(repo, never()).findById(any());
     verify(repo, never()).save(any());
+    verify(events).publishEvent(new OrderStatusChangedEvent("o-1", OrderStatus.NEW, 4990, OrderStatus.PAID, 4990));
   }
 
   @Test
-  void markFailed_success_whenStatusIsNew() {
-    Order order = new Order();
-    String id = order.getId();
-    order.setStatus(OrderStatus.NEW);
+  void markPaid_throws_whenNotNew() {
+    when(repo.transition("o-1", OrderStatus.NEW, OrderStatus.PAID)).thenReturn(0);
+    when(repo.findStatusById("o-1")).thenReturn(Optional.of(OrderStatus.PAID));
 
-    when(repo.findById(id)).thenReturn(Optional.of(order));
-    when(repo.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+    assertThrows(IllegalStateException.class, () -> service.markPaid("o-1"));
+    verify(repo, never()).save(any());
+    verifyNoInteractions(events);
+  }
 
-    service.markFailed(id);
+  @Test
+  void markFailed_success_whenStatusIsNew() {
+    when(repo.transition("o-1", OrderStatus.NEW, OrderStatus.FAILED_PAYMENT)).thenReturn(1);
+
+    service.markFailed("o-1");
 
-    assertThat(order.getStatus()).isEqualTo(OrderStatus.FAILED_PAYMENT);
-    verify(repo).save(order);
+    verify(repo).transition("o-1", OrderStatus.NEW, OrderStatus.FAILED_PAYMENT);
+    verify(repo, never()).save(any());
   }
 
   @Test
   void markFailed_throws_whenOrderNotFound() {
-    when(repo.findById("missing")).thenReturn(Optional.empty());
+    when(repo.transition("missing", OrderStatus.NEW, OrderStatus.FAILED_PAYMENT)).thenReturn(0);
+    when(repo.findStatusById("missing")).thenReturn(Optional.empty());
     assertThrows(EntityNotFoundException.class, () -> service.markFailed("missing"));
   }
 }
@@ -0,0 +1,64 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.OrderStatus;
+import com.example.challenge.repo.ArchivedOrderRepository;
+import com.example.challenge.repo.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class OrderStatusSummaryTest {
+
+  private final OrderRepository repo = mock(OrderRepository.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private OrderStatusSummary summary;
+
+  @BeforeEach
+  void setup() {
+    summary = new OrderStatusSummary(repo, mock(ArchivedOrderRepository.class));
+    summary.bindTo(registry);
+  }
+
+  @Test
+  void events_moveCountsAndTotalsBetweenStatuses() {
+    summary.on(new OrderStatusChangedEvent("a", null, 0, OrderStatus.NEW, 1000));
+    summary.on(new OrderStatusChangedEvent("b", null, 0, OrderStatus.NEW, 250));
+    summary.on(new OrderStatusChangedEvent("a", OrderStatus.NEW, 1000, OrderStatus.NEW, 1500));
+    summary.on(new OrderStatusChangedEvent("a", OrderStatus.NEW, 1500, OrderStatus.PAID, 1500));
+    summary.on(new OrderStatusChangedEvent("b", OrderStatus.NEW, 250, null, 0));
+
+    assertThat(summary.snapshot().get(OrderStatus.NEW)).isEqualTo(new OrderStatusSummary.Totals(0, 0));
+    assertThat(summary.snapshot().get(OrderStatus.PAID)).isEqualTo(new OrderStatusSummary.Totals(1, 1500));
+    assertThat(registry.get("orders.status").tag("status", "PAID").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  void rebuild_loadsFromAggregate_andReconcileFixesOnlyPersistentDrift() {
+    when(repo.summarizeByStatus()).thenReturn(List.of(row(OrderStatus.NEW, 3, 900), row(OrderStatus.PAID, 1, 100)));
+    summary.rebuild();
+    assertThat(summary.snapshot().get(OrderStatus.NEW)).isEqualTo(new OrderStatusSummary.Totals(3, 900));
+
+    // Um pedido pago fora do serviço: a primeira rodada só desconfia, a segunda corrige.
+    when(repo.summarizeByStatus()).thenReturn(List.of(row(OrderStatus.NEW, 2, 600), row(OrderStatus.PAID, 2, 400)));
+    summary.reconcile();
+    assertThat(summary.snapshot().get(OrderStatus.PAID)).isEqualTo(new OrderStatusSummary.Totals(1, 100));
+    summary.reconcile();
+
+    assertThat(summary.snapshot().get(OrderStatus.NEW)).isEqualTo(new OrderStatusSummary.Totals(2, 600));
+    assertThat(summary.snapshot().get(OrderStatus.PAID)).isEqualTo(new OrderStatusSummary.Totals(2, 400));
+    assertThat(registry.counter("orders.summary.drift").count()).isEqualTo(1);
+  }
+
+  private static OrderRepository.StatusTotals row(OrderStatus status, long count, long amount) {
+    return new OrderRepository.StatusTotals() {
+      public OrderStatus getStatus() { return status; }
+      public long getCount() { return count; }
+      public long getAmount() { return amount; }
+    };
+  }
+}